@@ -0,0 +1,65 @@
+package com.tuhailong.graph;
+
+/**
+ * 邻接关系的只读视图，遍历引擎通过它访问各种存储形式的图
+ * 顶点v的邻接顶点用游标e逐个枚举：
+ * for (int e = firstEdge(v); e >= 0; e = nextEdge(v, e)) { int w = edgeTarget(v, e); }
+ * 游标的含义由实现决定，调用方不应做任何假设
+ *
+ * @author tuhailong
+ */
+interface Adjacency {
+    /**
+     * 获取顶点数量
+     */
+    int vertexSize();
+
+    /**
+     * 获取顶点v的出度
+     */
+    int degree(int v);
+
+    /**
+     * 返回顶点v的第一条边的游标，没有则返回-1
+     */
+    int firstEdge(int v);
+
+    /**
+     * 返回顶点v在游标e之后的下一条边的游标，没有则返回-1
+     */
+    int nextEdge(int v, int e);
+
+    /**
+     * 返回顶点v的游标e所指的边的对端顶点
+     */
+    int edgeTarget(int v, int e);
+
+    /**
+     * 获取顶点v的所有邻接顶点
+     */
+    default int[] adjacent(int v) {
+        int[] ret = new int[degree(v)];
+        int size = 0;
+        for (int e = firstEdge(v); e >= 0; e = nextEdge(v, e)) {
+            ret[size++] = edgeTarget(v, e);
+        }
+        return ret;
+    }
+
+    /**
+     * 逐条收集边、最后一次性建成只读邻接关系的构建器
+     */
+    interface Builder {
+        /**
+         * 添加一个顶点，返回它的序号
+         */
+        int addVertex();
+
+        /**
+         * 添加一条由sp指向ep的边
+         */
+        Builder addEdge(int sp, int ep);
+
+        Adjacency build();
+    }
+}
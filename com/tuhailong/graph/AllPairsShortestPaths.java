@@ -0,0 +1,178 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 所有顶点对之间的最短距离，用分块的Floyd-Warshall算法计算：
+ * 距离矩阵按TILE × TILE分块，对第kb个对角块依次
+ * 1. 更新对角块(kb, kb)自身；
+ * 2. 并行更新第kb行和第kb列的其余块，它们只依赖对角块；
+ * 3. 并行更新其余所有块(i, j)，只依赖(i, kb)和(kb, j)。
+ * 每一步的工作集是几个块，能留在缓存中，O(V^3)
+ * 存在负环时某些顶点到自己的距离小于0
+ *
+ * @author tuhailong
+ */
+public final class AllPairsShortestPaths {
+    // 块的边长，三个块约占96K字节
+    private static final int TILE = 64;
+
+    // mDistances[i][j]为由i到j的最短距离，不可达为正无穷
+    private final double[][] mDistances;
+
+    private AllPairsShortestPaths(double[][] distances) {
+        this.mDistances = distances;
+    }
+
+    /**
+     * 计算weights中所有顶点对之间的最短距离，weights本身不变
+     */
+    static AllPairsShortestPaths floydWarshall(WeightMatrix weights, ForkJoinPool pool) {
+        Instrumentation.Probe probe = Instrumentation.begin("AllPairsShortestPaths.floydWarshall");
+        int vLen = weights.vertexSize();
+        double[][] dist = new double[vLen][];
+        for (int i = 0; i < vLen; i++) {
+            dist[i] = Arrays.copyOf(weights.row(i), vLen);
+            if (dist[i][i] > 0) {
+                dist[i][i] = 0;
+            }
+        }
+        int tiles = (vLen + TILE - 1) / TILE;
+        for (int kb = 0; kb < tiles; kb++) {
+            // 1. 对角块
+            update(dist, kb, kb, kb);
+            // 2. 第kb行和第kb列的块
+            pool.invoke(new Phase(dist, kb, tiles, false));
+            // 3. 其余的块
+            pool.invoke(new Phase(dist, kb, tiles, true));
+        }
+        if (probe != null) {
+            long edges = 0;
+            for (int i = 0; i < vLen; i++) {
+                edges += weights.degree(i);
+            }
+            probe.end(vLen, edges, 0);
+        }
+        return new AllPairsShortestPaths(dist);
+    }
+
+    /**
+     * 以第kb块中的顶点为中转顶点更新块(ib, jb)
+     * 中转顶点k在外层循环，块与(ib, kb)或(kb, jb)重合时原地更新也是正确的
+     */
+    private static void update(double[][] dist, int ib, int jb, int kb) {
+        int vLen = dist.length;
+        int iEnd = Math.min(vLen, (ib + 1) * TILE);
+        int jStart = jb * TILE;
+        int jEnd = Math.min(vLen, jStart + TILE);
+        int kEnd = Math.min(vLen, (kb + 1) * TILE);
+        for (int k = kb * TILE; k < kEnd; k++) {
+            double[] rowK = dist[k];
+            for (int i = ib * TILE; i < iEnd; i++) {
+                double[] rowI = dist[i];
+                double dik = rowI[k];
+                if (dik == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int j = jStart; j < jEnd; j++) {
+                    double d = dik + rowK[j];
+                    if (d < rowI[j]) {
+                        rowI[j] = d;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 并行更新一个阶段的所有块，块按序号范围[mLo, mHi)二分
+     * 第2阶段：序号t < tiles为块(kb, t)，否则为块(t - tiles, kb)，跳过对角块；
+     * 第3阶段：序号t为块(t / tiles, t % tiles)，跳过第kb行和第kb列
+     */
+    private static class Phase extends RecursiveAction {
+        private final double[][] mDist;
+        private final int mKb;
+        private final int mTiles;
+        private final boolean mRest;
+        private final int mLo;
+        private final int mHi;
+
+        Phase(double[][] dist, int kb, int tiles, boolean rest) {
+            this(dist, kb, tiles, rest, 0, rest ? tiles * tiles : tiles * 2);
+        }
+
+        private Phase(double[][] dist, int kb, int tiles, boolean rest, int lo, int hi) {
+            this.mDist = dist;
+            this.mKb = kb;
+            this.mTiles = tiles;
+            this.mRest = rest;
+            this.mLo = lo;
+            this.mHi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (mHi - mLo > 1) {
+                int mid = (mLo + mHi) >>> 1;
+                invokeAll(new Phase(mDist, mKb, mTiles, mRest, mLo, mid),
+                        new Phase(mDist, mKb, mTiles, mRest, mid, mHi));
+                return;
+            }
+            int t = mLo;
+            int ib;
+            int jb;
+            if (mRest) {
+                ib = t / mTiles;
+                jb = t % mTiles;
+                if (ib == mKb || jb == mKb) {
+                    return;
+                }
+            } else if (t < mTiles) {
+                ib = mKb;
+                jb = t;
+            } else {
+                ib = t - mTiles;
+                jb = mKb;
+            }
+            if (!mRest && ib == mKb && jb == mKb) {
+                return;
+            }
+            update(mDist, ib, jb, mKb);
+        }
+    }
+
+    /**
+     * 顶点数量
+     */
+    public int size() {
+        return mDistances.length;
+    }
+
+    /**
+     * 由顶点数组中序号为from的顶点到序号为to的顶点的最短距离，不可达则返回正无穷
+     */
+    public double distance(int from, int to) {
+        return mDistances[from][to];
+    }
+
+    /**
+     * 由顶点from到所有顶点的最短距离
+     */
+    public double[] distancesFrom(int from) {
+        return Arrays.copyOf(mDistances[from], mDistances.length);
+    }
+
+    /**
+     * 是否存在负环
+     */
+    public boolean hasNegativeCycle() {
+        for (int i = 0; i < mDistances.length; i++) {
+            if (mDistances[i][i] < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
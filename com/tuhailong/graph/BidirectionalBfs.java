@@ -0,0 +1,124 @@
+package com.tuhailong.graph;
+
+/**
+ * 点对点最短路径的双向广度优先搜索(边不带权重)
+ * 从起点沿出边、从终点沿入边同时搜索，每次扩展顶点较少的一侧的一整层，
+ * 第一次发现两侧相遇时经过相遇点的路径即为最短路径：此前没有顶点被两侧同时访问，
+ * 相遇的顶点在另一侧一定位于最外层，同一层中的所有相遇点给出的长度都相同；
+ * 在直径较小的图上两侧各只需搜索约一半的深度，访问的顶点远少于单向BFS
+ * 两侧的访问标记、父顶点和队列都来自TraversalContext，复位为O(1)，
+ * 一次查询的时间只与两侧访问到的顶点和边成正比
+ *
+ * @author tuhailong
+ */
+final class BidirectionalBfs {
+    private BidirectionalBfs() {
+    }
+
+    /**
+     * 从source到target的最短路径上的所有顶点序号，不可达则返回空数组
+     * out为出边，in为入边，无向图两者相同
+     */
+    static int[] path(Adjacency out, Adjacency in, int source, int target, TraversalContext context) {
+        int vLen = out.vertexSize();
+        if (source < 0 || source >= vLen) {
+            throw new IndexOutOfBoundsException("source " + source);
+        }
+        if (target < 0 || target >= vLen) {
+            throw new IndexOutOfBoundsException("target " + target);
+        }
+        if (source == target) {
+            return new int[] { source };
+        }
+        Instrumentation.Probe probe = Instrumentation.begin("BidirectionalBfs.path");
+        // 正向一侧用visit/visited标记，反向一侧用mark/marked标记
+        context.beginPaired(vLen);
+        // 两侧搜索树上的父顶点
+        int[] forwardParents = context.parents();
+        int[] backwardParents = context.cursors();
+        // 两侧的队列，当前层为queue[head, tail)
+        int[] forwardQueue = context.queue();
+        int[] backwardQueue = context.stack();
+        int fHead = 0;
+        int fTail = 1;
+        int bHead = 0;
+        int bTail = 1;
+        forwardQueue[0] = source;
+        context.visit(source);
+        forwardParents[source] = -1;
+        backwardQueue[0] = target;
+        context.mark(target);
+        backwardParents[target] = -1;
+
+        // 相遇点
+        int meet = -1;
+        int touched = 2;
+        int maxFrontier = 1;
+        long edges = 0;
+        while (fHead < fTail && bHead < bTail && meet < 0) {
+            boolean forward = fTail - fHead <= bTail - bHead;
+            Adjacency g = forward ? out : in;
+            int[] queue = forward ? forwardQueue : backwardQueue;
+            int[] parents = forward ? forwardParents : backwardParents;
+            int head = forward ? fHead : bHead;
+            int tail = forward ? fTail : bTail;
+            int end = tail;
+            for (int i = head; i < end && meet < 0; i++) {
+                int v = queue[i];
+                for (int e = g.firstEdge(v); e >= 0; e = g.nextEdge(v, e)) {
+                    edges++;
+                    int w = g.edgeTarget(v, e);
+                    boolean seen = forward ? context.visited(w) : context.marked(w);
+                    if (!seen) {
+                        if (forward) {
+                            context.visit(w);
+                        } else {
+                            context.mark(w);
+                        }
+                        parents[w] = v;
+                        queue[tail++] = w;
+                        touched++;
+                    }
+                    if (forward ? context.marked(w) : context.visited(w)) {
+                        meet = w;
+                        break;
+                    }
+                }
+            }
+            if (forward) {
+                fHead = end;
+                fTail = tail;
+            } else {
+                bHead = end;
+                bTail = tail;
+            }
+            maxFrontier = Math.max(maxFrontier, tail - end);
+        }
+        if (probe != null) {
+            probe.end(touched, edges, maxFrontier);
+        }
+        if (meet < 0) {
+            return new int[0];
+        }
+
+        // meet在两侧都已访问，路径为source -> meet -> target
+        int forwardLen = 0;
+        for (int v = forwardParents[meet]; v >= 0; v = forwardParents[v]) {
+            forwardLen++;
+        }
+        int backwardLen = 0;
+        for (int v = backwardParents[meet]; v >= 0; v = backwardParents[v]) {
+            backwardLen++;
+        }
+        int[] ret = new int[forwardLen + backwardLen + 1];
+        int i = forwardLen;
+        for (int v = meet; v >= 0; v = forwardParents[v]) {
+            ret[i--] = v;
+        }
+        i = forwardLen + 1;
+        for (int v = backwardParents[meet]; v >= 0; v = backwardParents[v]) {
+            ret[i++] = v;
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,168 @@
+package com.tuhailong.graph;
+
+/**
+ * 按位压缩的邻接矩阵，每一行是一个long[]位图，每个元素只占1位
+ * 第i行第j位为1表示存在由顶点i到顶点j的边
+ *
+ * @author tuhailong
+ */
+final class BitMatrix implements Adjacency {
+    // 矩阵的阶数(顶点数量)
+    private final int mSize;
+    // 每行占用的long的数量
+    private final int mWords;
+    // 行位图
+    private final long[][] mRows;
+
+    BitMatrix(int size) {
+        this.mSize = size;
+        this.mWords = wordsFor(size);
+        this.mRows = new long[size][mWords];
+    }
+
+    /**
+     * 容纳size位所需的long的数量
+     */
+    static int wordsFor(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    @Override
+    public int vertexSize() {
+        return mSize;
+    }
+
+    @Override
+    public int degree(int v) {
+        return cardinality(mRows[v]);
+    }
+
+    // 游标即对端顶点的序号(列号)
+    @Override
+    public int firstEdge(int v) {
+        return nextSetBit(mRows[v], 0);
+    }
+
+    @Override
+    public int nextEdge(int v, int e) {
+        return nextSetBit(mRows[v], e + 1);
+    }
+
+    @Override
+    public int edgeTarget(int v, int e) {
+        return e;
+    }
+
+    int words() {
+        return mWords;
+    }
+
+    /**
+     * 获取第i行的位图，调用方只读
+     */
+    long[] row(int i) {
+        return mRows[i];
+    }
+
+    boolean get(int i, int j) {
+        return (mRows[i][j >>> 6] & (1L << j)) != 0;
+    }
+
+    void set(int i, int j) {
+        mRows[i][j >>> 6] |= 1L << j;
+    }
+
+    void clear(int i, int j) {
+        mRows[i][j >>> 6] &= ~(1L << j);
+    }
+
+    /**
+     * 返回第i行中从from(含)开始的第一个为1的位，没有则返回-1
+     */
+    int nextSetBit(int i, int from) {
+        return nextSetBit(mRows[i], from);
+    }
+
+    /**
+     * 返回位图bits中从from(含)开始的第一个为1的位，没有则返回-1
+     */
+    static int nextSetBit(long[] bits, int from) {
+        int w = from >>> 6;
+        if (w >= bits.length) {
+            return -1;
+        }
+        long word = bits[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == bits.length) {
+                return -1;
+            }
+            word = bits[w];
+        }
+    }
+
+    /**
+     * 返回(bits & ~mask)中从from(含)开始的第一个为1的位，没有则返回-1
+     * 用于跳过已访问的顶点，一次比较64个候选顶点
+     */
+    static int nextSetBitAndNot(long[] bits, long[] mask, int from) {
+        int w = from >>> 6;
+        if (w >= bits.length) {
+            return -1;
+        }
+        long word = bits[w] & ~mask[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == bits.length) {
+                return -1;
+            }
+            word = bits[w] & ~mask[w];
+        }
+    }
+
+    /**
+     * dst |= src
+     */
+    static void or(long[] dst, long[] src) {
+        for (int w = 0; w < dst.length; w++) {
+            dst[w] |= src[w];
+        }
+    }
+
+    /**
+     * dst &= ~src
+     */
+    static void andNot(long[] dst, long[] src) {
+        for (int w = 0; w < dst.length; w++) {
+            dst[w] &= ~src[w];
+        }
+    }
+
+    /**
+     * 位图中为1的位的数量
+     */
+    static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,264 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 分块存放的不可修改邻接表：顶点按序号每BLOCK_SIZE个分为一块，每块是一个小的CSR
+ * 修改时只复制被修改的块，其余的块与上一版本共用，因此发布新版本的代价与修改涉及的块成正比，
+ * 而不是与整个图成正比；游标是边在块内对端顶点数组中的位置
+ *
+ * @author tuhailong
+ */
+final class BlockAdjacency implements Adjacency {
+    static final int BLOCK_SHIFT = 10;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private final int mVertexSize;
+    private final Block[] mBlocks;
+
+    /**
+     * 一块顶点的邻接关系，块内第i个顶点的邻接顶点为targets[offsets[i], offsets[i + 1])
+     */
+    static final class Block {
+        final int[] offsets;
+        final int[] targets;
+
+        Block(int[] offsets, int[] targets) {
+            this.offsets = offsets;
+            this.targets = targets;
+        }
+    }
+
+    private BlockAdjacency(int vertexSize, Block[] blocks) {
+        this.mVertexSize = vertexSize;
+        this.mBlocks = blocks;
+    }
+
+    /**
+     * 把任意形式的邻接关系复制为分块的形式，邻接顶点的顺序不变
+     */
+    static BlockAdjacency copyOf(Adjacency adjacency) {
+        int vLen = adjacency.vertexSize();
+        Block[] blocks = new Block[(vLen + BLOCK_MASK) >>> BLOCK_SHIFT];
+        for (int b = 0; b < blocks.length; b++) {
+            int from = b << BLOCK_SHIFT;
+            int size = Math.min(BLOCK_SIZE, vLen - from);
+            int[] offsets = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[i + 1] = offsets[i] + adjacency.degree(from + i);
+            }
+            int[] targets = new int[offsets[size]];
+            int pos = 0;
+            for (int i = 0; i < size; i++) {
+                int v = from + i;
+                for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                    targets[pos++] = adjacency.edgeTarget(v, e);
+                }
+            }
+            blocks[b] = new Block(offsets, targets);
+        }
+        return new BlockAdjacency(vLen, blocks);
+    }
+
+    @Override
+    public int vertexSize() {
+        return mVertexSize;
+    }
+
+    @Override
+    public int degree(int v) {
+        int[] offsets = mBlocks[v >>> BLOCK_SHIFT].offsets;
+        int i = v & BLOCK_MASK;
+        return offsets[i + 1] - offsets[i];
+    }
+
+    @Override
+    public int firstEdge(int v) {
+        int[] offsets = mBlocks[v >>> BLOCK_SHIFT].offsets;
+        int i = v & BLOCK_MASK;
+        return offsets[i] < offsets[i + 1] ? offsets[i] : -1;
+    }
+
+    @Override
+    public int nextEdge(int v, int e) {
+        int[] offsets = mBlocks[v >>> BLOCK_SHIFT].offsets;
+        return e + 1 < offsets[(v & BLOCK_MASK) + 1] ? e + 1 : -1;
+    }
+
+    @Override
+    public int edgeTarget(int v, int e) {
+        return mBlocks[v >>> BLOCK_SHIFT].targets[e];
+    }
+
+    @Override
+    public int[] adjacent(int v) {
+        Block block = mBlocks[v >>> BLOCK_SHIFT];
+        int i = v & BLOCK_MASK;
+        return Arrays.copyOfRange(block.targets, block.offsets[i], block.offsets[i + 1]);
+    }
+
+    /**
+     * 单个写者：修改先作用在被修改的块的私有副本上，publish时把这些块重新压缩，
+     * 与未修改的块一起组成新版本；已发布的版本永远不会被修改，可以被任意多个线程无锁读取
+     */
+    static final class Writer {
+        // 最近一次发布的版本
+        private BlockAdjacency mPublished;
+        private int mVertexSize;
+        // 本批修改涉及的块的可修改副本，未修改的块为null
+        private int[][][] mRows;
+        private int[][] mDegrees;
+        // 本批修改涉及的块的序号
+        private int[] mDirty = new int[4];
+        private int mDirtySize;
+
+        Writer(BlockAdjacency initial) {
+            this.mPublished = initial;
+            this.mVertexSize = initial.mVertexSize;
+            this.mRows = new int[initial.mBlocks.length][][];
+            this.mDegrees = new int[initial.mBlocks.length][];
+        }
+
+        int vertexSize() {
+            return mVertexSize;
+        }
+
+        /**
+         * 本批是否有尚未发布的修改
+         */
+        boolean isDirty() {
+            return mDirtySize > 0;
+        }
+
+        int addVertex() {
+            int v = mVertexSize;
+            int b = v >>> BLOCK_SHIFT;
+            if (b == mRows.length) {
+                mRows = Arrays.copyOf(mRows, Math.max(4, b + (b >> 1)));
+                mDegrees = Arrays.copyOf(mDegrees, mRows.length);
+            }
+            // 新顶点所在的块一定被修改
+            thaw(b);
+            if (mRows[b].length == (v & BLOCK_MASK)) {
+                mRows[b] = Arrays.copyOf(mRows[b], Math.min(BLOCK_SIZE, Math.max(4, mRows[b].length * 2)));
+                mDegrees[b] = Arrays.copyOf(mDegrees[b], mRows[b].length);
+            }
+            mRows[b][v & BLOCK_MASK] = new int[0];
+            mVertexSize++;
+            return v;
+        }
+
+        void addEdge(int sp, int ep) {
+            checkVertex(sp);
+            checkVertex(ep);
+            int b = sp >>> BLOCK_SHIFT;
+            thaw(b);
+            int i = sp & BLOCK_MASK;
+            int[] row = mRows[b][i];
+            int degree = mDegrees[b][i];
+            if (degree == row.length) {
+                row = Arrays.copyOf(row, Math.max(4, degree + (degree >> 1)));
+                mRows[b][i] = row;
+            }
+            row[degree] = ep;
+            mDegrees[b][i] = degree + 1;
+        }
+
+        boolean removeEdge(int sp, int ep) {
+            checkVertex(sp);
+            checkVertex(ep);
+            int b = sp >>> BLOCK_SHIFT;
+            int i = sp & BLOCK_MASK;
+            if (mRows[b] == null && !contains(mPublished, sp, ep)) {
+                // 不存在的边不需要复制块
+                return false;
+            }
+            thaw(b);
+            int[] row = mRows[b][i];
+            int degree = mDegrees[b][i];
+            for (int k = 0; k < degree; k++) {
+                if (row[k] == ep) {
+                    System.arraycopy(row, k + 1, row, k, degree - k - 1);
+                    mDegrees[b][i] = degree - 1;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean contains(BlockAdjacency adjacency, int sp, int ep) {
+            if (sp >= adjacency.mVertexSize) {
+                return false;
+            }
+            for (int e = adjacency.firstEdge(sp); e >= 0; e = adjacency.nextEdge(sp, e)) {
+                if (adjacency.edgeTarget(sp, e) == ep) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void checkVertex(int v) {
+            if (v < 0 || v >= mVertexSize) {
+                throw new IndexOutOfBoundsException("vertex " + v);
+            }
+        }
+
+        // 第一次修改块b时把它展开为每个顶点一行的可修改形式
+        private void thaw(int b) {
+            if (mRows[b] != null) {
+                return;
+            }
+            Block[] blocks = mPublished.mBlocks;
+            int from = b << BLOCK_SHIFT;
+            int size = b < blocks.length ? Math.min(BLOCK_SIZE, mPublished.mVertexSize - from) : 0;
+            int[][] rows = new int[Math.max(size, 4)][];
+            int[] degrees = new int[rows.length];
+            if (size > 0) {
+                Block block = blocks[b];
+                for (int i = 0; i < size; i++) {
+                    rows[i] = Arrays.copyOfRange(block.targets, block.offsets[i], block.offsets[i + 1]);
+                    degrees[i] = rows[i].length;
+                }
+            }
+            mRows[b] = rows;
+            mDegrees[b] = degrees;
+            if (mDirtySize == mDirty.length) {
+                mDirty = Arrays.copyOf(mDirty, mDirtySize * 2);
+            }
+            mDirty[mDirtySize++] = b;
+        }
+
+        /**
+         * 把本批修改的块重新压缩，与其余的块组成新版本，没有修改时返回上一个版本
+         */
+        BlockAdjacency publish() {
+            if (mDirtySize == 0) {
+                return mPublished;
+            }
+            int vLen = mVertexSize;
+            Block[] blocks = Arrays.copyOf(mPublished.mBlocks, (vLen + BLOCK_MASK) >>> BLOCK_SHIFT);
+            for (int d = 0; d < mDirtySize; d++) {
+                int b = mDirty[d];
+                int size = Math.min(BLOCK_SIZE, vLen - (b << BLOCK_SHIFT));
+                int[][] rows = mRows[b];
+                int[] degrees = mDegrees[b];
+                int[] offsets = new int[size + 1];
+                for (int i = 0; i < size; i++) {
+                    offsets[i + 1] = offsets[i] + degrees[i];
+                }
+                int[] targets = new int[offsets[size]];
+                for (int i = 0; i < size; i++) {
+                    System.arraycopy(rows[i], 0, targets, offsets[i], degrees[i]);
+                }
+                blocks[b] = new Block(offsets, targets);
+                mRows[b] = null;
+                mDegrees[b] = null;
+            }
+            mDirtySize = 0;
+            mPublished = new BlockAdjacency(vLen, blocks);
+            return mPublished;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 图的压缩稀疏行(CSR)表示
+ * 顶点v的所有邻接顶点依次存放在mTargets[mOffsets[v], mOffsets[v + 1])中，
+ * 构建完成后不可修改
+ *
+ * @author tuhailong
+ */
+final class CompressedSparseRow implements Adjacency {
+    // 偏移数组，长度为顶点数量+1
+    private final int[] mOffsets;
+    // 边的对端顶点数组，长度为边的数量
+    private final int[] mTargets;
+
+    private CompressedSparseRow(int[] offsets, int[] targets) {
+        this.mOffsets = offsets;
+        this.mTargets = targets;
+    }
+
+    @Override
+    public int vertexSize() {
+        return mOffsets.length - 1;
+    }
+
+    // 游标即边在mTargets中的位置
+    @Override
+    public int firstEdge(int v) {
+        int e = mOffsets[v];
+        return e < mOffsets[v + 1] ? e : -1;
+    }
+
+    @Override
+    public int nextEdge(int v, int e) {
+        return e + 1 < mOffsets[v + 1] ? e + 1 : -1;
+    }
+
+    @Override
+    public int edgeTarget(int v, int e) {
+        return mTargets[e];
+    }
+
+    /**
+     * 获取边的数量
+     */
+    int edgeSize() {
+        return mTargets.length;
+    }
+
+    @Override
+    public int degree(int v) {
+        return mOffsets[v + 1] - mOffsets[v];
+    }
+
+    /**
+     * 偏移数组，调用方只读
+     */
+    int[] offsets() {
+        return mOffsets;
+    }
+
+    /**
+     * 对端顶点数组，调用方只读
+     */
+    int[] targets() {
+        return mTargets;
+    }
+
+    @Override
+    public int[] adjacent(int v) {
+        return Arrays.copyOfRange(mTargets, mOffsets[v], mOffsets[v + 1]);
+    }
+
+    /**
+     * 获取所有边反向后的CSR，每个顶点的邻接顶点按源顶点序号升序排列
+     */
+    CompressedSparseRow transpose() {
+        return transpose(this);
+    }
+
+    /**
+     * 把任意形式的邻接关系复制为CSR，邻接顶点的顺序不变
+     */
+    static CompressedSparseRow copyOf(Adjacency adjacency) {
+        if (adjacency instanceof CompressedSparseRow) {
+            return (CompressedSparseRow)adjacency;
+        }
+        int vLen = adjacency.vertexSize();
+        int[] offsets = new int[vLen + 1];
+        for (int v = 0; v < vLen; v++) {
+            offsets[v + 1] = Math.addExact(offsets[v], adjacency.degree(v));
+        }
+        int[] targets = new int[offsets[vLen]];
+        for (int v = 0; v < vLen; v++) {
+            int pos = offsets[v];
+            for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                targets[pos++] = adjacency.edgeTarget(v, e);
+            }
+        }
+        return new CompressedSparseRow(offsets, targets);
+    }
+
+    /**
+     * 把adjacency按新序号重新编号后的CSR：原来的顶点v的新序号为ranks[v]，order为其逆排列，
+     * 每个顶点的邻接顶点按新序号升序排列
+     */
+    static CompressedSparseRow permute(Adjacency adjacency, int[] order, int[] ranks) {
+        int vLen = order.length;
+        int[] offsets = new int[vLen + 1];
+        for (int i = 0; i < vLen; i++) {
+            offsets[i + 1] = Math.addExact(offsets[i], adjacency.degree(order[i]));
+        }
+        int[] targets = new int[offsets[vLen]];
+        for (int i = 0; i < vLen; i++) {
+            int v = order[i];
+            int pos = offsets[i];
+            for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                targets[pos++] = ranks[adjacency.edgeTarget(v, e)];
+            }
+            Arrays.sort(targets, offsets[i], pos);
+        }
+        return new CompressedSparseRow(offsets, targets);
+    }
+
+    /**
+     * 获取adjacency所有边反向后的CSR，每个顶点的邻接顶点按源顶点序号升序排列
+     */
+    static CompressedSparseRow transpose(Adjacency adjacency) {
+        int vLen = adjacency.vertexSize();
+        int[] offsets = new int[vLen + 1];
+        for (int v = 0; v < vLen; v++) {
+            for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                offsets[adjacency.edgeTarget(v, e) + 1]++;
+            }
+        }
+        for (int i = 0; i < vLen; i++) {
+            offsets[i + 1] = Math.addExact(offsets[i + 1], offsets[i]);
+        }
+        int[] targets = new int[offsets[vLen]];
+        int[] cursor = Arrays.copyOf(offsets, vLen);
+        for (int v = 0; v < vLen; v++) {
+            for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                targets[cursor[adjacency.edgeTarget(v, e)]++] = v;
+            }
+        }
+        return new CompressedSparseRow(offsets, targets);
+    }
+
+    /**
+     * CSR构建器：先按输入顺序收集边，build时用计数排序按源顶点分组，
+     * 同一顶点的邻接顶点保持插入顺序
+     */
+    static final class Builder implements Adjacency.Builder {
+        // 顶点数量
+        private int mVertexSize;
+        // 边的起始顶点
+        private int[] mSources;
+        // 边的终止顶点
+        private int[] mTargets;
+        // 已收集的边的数量
+        private int mSize;
+
+        Builder(int vertexSize, int expectedEdges) {
+            this.mVertexSize = vertexSize;
+            this.mSources = new int[Math.max(expectedEdges, 4)];
+            this.mTargets = new int[Math.max(expectedEdges, 4)];
+            this.mSize = 0;
+        }
+
+        /**
+         * 添加一个顶点，返回它的序号，用于事先不知道顶点数量的情形
+         */
+        @Override
+        public int addVertex() {
+            return mVertexSize++;
+        }
+
+        /**
+         * 添加一条由sp指向ep的边
+         */
+        @Override
+        public Builder addEdge(int sp, int ep) {
+            if (sp < 0 || sp >= mVertexSize || ep < 0 || ep >= mVertexSize) {
+                throw new IndexOutOfBoundsException("edge " + sp + "->" + ep);
+            }
+            if (mSize == mSources.length) {
+                int newLen = mSize + (mSize >> 1);
+                mSources = Arrays.copyOf(mSources, newLen);
+                mTargets = Arrays.copyOf(mTargets, newLen);
+            }
+            mSources[mSize] = sp;
+            mTargets[mSize] = ep;
+            mSize++;
+            return this;
+        }
+
+        @Override
+        public CompressedSparseRow build() {
+            int[] offsets = new int[mVertexSize + 1];
+            int[] targets = new int[mSize];
+            for (int i = 0; i < mSize; i++) {
+                offsets[mSources[i] + 1]++;
+            }
+            for (int i = 0; i < mVertexSize; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] cursor = Arrays.copyOf(offsets, mVertexSize);
+            for (int i = 0; i < mSize; i++) {
+                targets[cursor[mSources[i]]++] = mTargets[i];
+            }
+            return new CompressedSparseRow(offsets, targets);
+        }
+
+        /**
+         * 把按添加顺序排列的每条边的数据(如权重)换成build得到的CSR中边的顺序，
+         * 与build使用相同的稳定计数排序
+         */
+        double[] place(double[] values) {
+            int[] cursor = new int[mVertexSize + 1];
+            for (int i = 0; i < mSize; i++) {
+                cursor[mSources[i] + 1]++;
+            }
+            for (int i = 0; i < mVertexSize; i++) {
+                cursor[i + 1] += cursor[i];
+            }
+            double[] placed = new double[mSize];
+            for (int i = 0; i < mSize; i++) {
+                placed[cursor[mSources[i]]++] = values[i];
+            }
+            return placed;
+        }
+    }
+}
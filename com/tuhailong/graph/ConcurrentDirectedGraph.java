@@ -0,0 +1,167 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 读多写少的并发有向图：读者无锁地读取已发布的不可修改快照，写者批量修改后一次性发布新版本
+ * 1. snapshot返回当前发布的快照，它是一个普通的DirectedGraph，dfs、bfs、强连通分量等都可以直接使用，
+ *    快照发布后永远不会改变，读者之间、读者与写者之间都不需要加锁；
+ * 2. 修改先作用在写者私有的副本上，publish之前读者看不到；邻接表按块写时复制(BlockAdjacency)，
+ *    发布时只复制被修改的块；添加了顶点的批次还要为快照重建一次顶点字典；
+ * 3. 写操作是同步的，多个写线程会依次执行。
+ *
+ * @author tuhailong
+ */
+public class ConcurrentDirectedGraph<T> {
+    private final BlockAdjacency.Writer mWriter;
+    // 顶点数组，与快照共用：快照只读取自己的顶点数量之内的元素，写者只在其后追加，扩容时复制
+    private T[] mVertexes;
+    // 写者添加顶点后使用的字典，发布时交给快照；为null时与最近的快照共用字典
+    private VertexDictionary<T> mDictionary;
+    // 已发布的修改版本号
+    private long mVersion;
+    private volatile Snapshot<T> mSnapshot;
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentDirectedGraph(T[] vexs, T[][] edges) {
+        DirectedGraph<T> graph = new DirectedGraph<>(vexs, edges);
+        BlockAdjacency adjacency = BlockAdjacency.copyOf(graph.adjacency());
+        mWriter = new BlockAdjacency.Writer(adjacency);
+        mVertexes = (T[])Arrays.copyOf(vexs, vexs.length, Object[].class);
+        mSnapshot = new Snapshot<>(mVertexes, vexs.length, VertexDictionary.of(vexs), adjacency, 0);
+    }
+
+    /**
+     * 不可修改的快照，修改方法抛出UnsupportedOperationException
+     */
+    static final class Snapshot<T> extends DirectedGraph<T> {
+        private final long mSnapshotVersion;
+
+        Snapshot(T[] vertexes, int vertexSize, VertexDictionary<T> dictionary, Adjacency adjacency, long version) {
+            super(vertexes, vertexSize, dictionary, adjacency);
+            this.mSnapshotVersion = version;
+        }
+
+        @Override
+        public long version() {
+            return mSnapshotVersion;
+        }
+
+        @Override
+        public int addVertex(T info) {
+            throw new UnsupportedOperationException("snapshot is immutable");
+        }
+
+        @Override
+        public void addEdge(int sp, int ep) {
+            throw new UnsupportedOperationException("snapshot is immutable");
+        }
+
+        @Override
+        public boolean removeEdge(int sp, int ep) {
+            throw new UnsupportedOperationException("snapshot is immutable");
+        }
+
+        @Override
+        public void compact() {
+            throw new UnsupportedOperationException("snapshot is immutable");
+        }
+
+        @Override
+        public void storeOffHeap() {
+            throw new UnsupportedOperationException("snapshot is immutable");
+        }
+    }
+
+    /**
+     * 最近一次发布的快照，无锁
+     */
+    public DirectedGraph<T> snapshot() {
+        return mSnapshot;
+    }
+
+    /**
+     * 最近一次发布的版本号，快照的version()与之相同
+     */
+    public long version() {
+        return mSnapshot.version();
+    }
+
+    /**
+     * 写者看到的顶点数量，包括尚未发布的顶点
+     */
+    public synchronized int vertexSize() {
+        return mWriter.vertexSize();
+    }
+
+    /**
+     * 写者看到的item的序号，包括尚未发布的顶点
+     */
+    public synchronized int index(T item) {
+        return mDictionary != null ? mDictionary.index(item) : mSnapshot.index(item);
+    }
+
+    private int indexOrThrow(T item) {
+        int v = index(item);
+        if (v == -1) {
+            throw new IllegalArgumentException("unknown vertex " + item);
+        }
+        return v;
+    }
+
+    /**
+     * 添加一个没有边的顶点，返回它的序号，发布后可见
+     */
+    public synchronized int addVertex(T info) {
+        int size = mWriter.vertexSize();
+        if (mDictionary == null) {
+            mDictionary = VertexDictionary.of(Arrays.copyOf(mVertexes, size));
+        }
+        if (size == mVertexes.length) {
+            // 复制后旧数组仍由已发布的快照使用
+            mVertexes = Arrays.copyOf(mVertexes, Math.max(4, size + (size >> 1)));
+        }
+        int v = mWriter.addVertex();
+        mVertexes[v] = info;
+        mDictionary.put(info, v);
+        return v;
+    }
+
+    /**
+     * 添加一条由序号为sp的顶点指向序号为ep的顶点的边，发布后可见
+     */
+    public synchronized void addEdge(int sp, int ep) {
+        mWriter.addEdge(sp, ep);
+    }
+
+    public synchronized void addEdge(T sp, T ep) {
+        addEdge(indexOrThrow(sp), indexOrThrow(ep));
+    }
+
+    /**
+     * 删除一条由序号为sp的顶点指向序号为ep的顶点的边，返回是否删除成功，发布后可见
+     */
+    public synchronized boolean removeEdge(int sp, int ep) {
+        return mWriter.removeEdge(sp, ep);
+    }
+
+    public synchronized boolean removeEdge(T sp, T ep) {
+        return removeEdge(indexOrThrow(sp), indexOrThrow(ep));
+    }
+
+    /**
+     * 原子地发布所有尚未发布的修改，返回新的版本号；没有修改时不产生新版本
+     */
+    public synchronized long publish() {
+        if (!mWriter.isDirty()) {
+            return mVersion;
+        }
+        BlockAdjacency adjacency = mWriter.publish();
+        VertexDictionary<T> dictionary = mDictionary != null ? mDictionary : mSnapshot.dictionary();
+        // 字典交给快照后不再修改，下次添加顶点时重新建立
+        mDictionary = null;
+        mVersion++;
+        mSnapshot = new Snapshot<>(mVertexes, adjacency.vertexSize(), dictionary, adjacency, mVersion);
+        return mVersion;
+    }
+}
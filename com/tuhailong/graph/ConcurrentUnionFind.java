@@ -0,0 +1,154 @@
+package com.tuhailong.graph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 无锁并查集，多个线程可以同时合并和查找
+ * 1. 合并时总是用CAS把序号较大的根元素链接到序号较小的根元素下，因此父元素的序号不大于自己，
+ *    森林中不会出现环，每个集合的根元素就是集合中序号最小的元素；
+ * 2. 查找时用CAS做路径减半，CAS失败说明其他线程已经修改了父元素，直接继续向上查找即可。
+ *
+ * @author tuhailong
+ */
+public class ConcurrentUnionFind {
+    // 每个并行任务至少处理的顶点数量
+    private static final int GRAIN = 2048;
+
+    // 每个元素的父元素，根元素的父元素是它自己
+    private final AtomicIntegerArray mParents;
+
+    public ConcurrentUnionFind(int size) {
+        mParents = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            mParents.set(i, i);
+        }
+    }
+
+    /**
+     * 返回元素x所在集合的根元素，并发合并时返回的根元素可能随后被链接到其他根元素下
+     */
+    public int find(int x) {
+        AtomicIntegerArray parents = mParents;
+        int p = parents.get(x);
+        while (p != x) {
+            int gp = parents.get(p);
+            if (gp != p) {
+                // 路径减半：让x指向祖父元素，失败不影响正确性
+                parents.compareAndSet(x, p, gp);
+            }
+            x = gp;
+            p = parents.get(x);
+        }
+        return x;
+    }
+
+    /**
+     * 合并x和y所在的集合，返回是否由本次调用完成了合并
+     */
+    public boolean union(int x, int y) {
+        while (true) {
+            int rx = find(x);
+            int ry = find(y);
+            if (rx == ry) {
+                return false;
+            }
+            if (rx < ry) {
+                int tmp = rx;
+                rx = ry;
+                ry = tmp;
+            }
+            // rx仍为根元素时才链接，否则重新查找
+            if (mParents.compareAndSet(rx, rx, ry)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * x和y是否属于同一个集合，只在没有并发合并时结果才是确定的
+     */
+    public boolean connected(int x, int y) {
+        return find(x) == find(y);
+    }
+
+    public int size() {
+        return mParents.length();
+    }
+
+    /**
+     * 并行合并adjacency中每条边的两个顶点
+     */
+    void unionAll(Adjacency adjacency, ForkJoinPool pool) {
+        pool.invoke(new UnionStep(adjacency, 0, adjacency.vertexSize()));
+    }
+
+    /**
+     * 并行求出每个元素的根元素，写入roots，必须在所有合并完成后调用
+     */
+    void roots(int[] roots, ForkJoinPool pool) {
+        pool.invoke(new FindStep(roots, 0, roots.length));
+    }
+
+    /**
+     * 合并起始顶点在[lo, hi)中的边
+     */
+    private class UnionStep extends RecursiveAction {
+        private final Adjacency mAdjacency;
+        private final int mLo;
+        private final int mHi;
+
+        UnionStep(Adjacency adjacency, int lo, int hi) {
+            this.mAdjacency = adjacency;
+            this.mLo = lo;
+            this.mHi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (mHi - mLo > GRAIN) {
+                int mid = (mLo + mHi) >>> 1;
+                invokeAll(new UnionStep(mAdjacency, mLo, mid), new UnionStep(mAdjacency, mid, mHi));
+                return;
+            }
+            Adjacency g = mAdjacency;
+            for (int v = mLo; v < mHi; v++) {
+                for (int e = g.firstEdge(v); e >= 0; e = g.nextEdge(v, e)) {
+                    int w = g.edgeTarget(v, e);
+                    // 无向边存为两条有向边，只合并一次；已在同一集合时find通常一两步就能返回
+                    if (w < v) {
+                        union(v, w);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 求出[lo, hi)中每个元素的根元素
+     */
+    private class FindStep extends RecursiveAction {
+        private final int[] mRoots;
+        private final int mLo;
+        private final int mHi;
+
+        FindStep(int[] roots, int lo, int hi) {
+            this.mRoots = roots;
+            this.mLo = lo;
+            this.mHi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (mHi - mLo > GRAIN) {
+                int mid = (mLo + mHi) >>> 1;
+                invokeAll(new FindStep(mRoots, mLo, mid), new FindStep(mRoots, mid, mHi));
+                return;
+            }
+            for (int x = mLo; x < mHi; x++) {
+                mRoots[x] = find(x);
+            }
+        }
+    }
+}
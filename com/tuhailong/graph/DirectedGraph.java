@@ -1,33 +1,31 @@
 package com.tuhailong.graph;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
- * 有向图的邻接链表表示
+ * 有向图的邻接表表示，邻接表以压缩稀疏行(CSR)的形式存储
  * @author tuhailong
  */
 public class DirectedGraph<T> {
 
-    // 顶点
-    private class VertexNode<E> {
-        // 顶点信息
-        E info;
-        // 指向第一条依附该顶点的边
-        AdjacentNode firstEdge;
-    }
-
-    // 顶点对应的邻接表的结点
-    private class AdjacentNode {
-        // 该边的对端顶点在顶点数组中的位置
-        int vexIdx;
-        // 指向下一条边的指针
-        AdjacentNode nextEdge;
-    }
-
-    // 顶点数组
-    private VertexNode<T>[] mVertexes;
+    // 顶点数组，容量可能大于顶点数量
+    private T[] mVertexes;
+    // 顶点数量
+    private int mVertexSize;
+    // 顶点信息到顶点序号的字典
+    private VertexDictionary<T> mDictionary;
+    // 顶点数组和字典是否与反向图共用，共用时添加顶点前先复制
+    private boolean mSharedVertexes;
+    // 邻接表：构建后为只读的CSR，第一次修改时转换为可修改的DynamicAdjacency
+    private Adjacency mAdjacency;
+    // 修改版本号，每次添加顶点、添加或删除边后加1
+    private long mVersion;
+    // 入边，点对点查询时按需构建，版本号变化后重新构建
+    private final TransposeCache mInEdges = new TransposeCache();
 
     @SuppressWarnings("unchecked")
     public DirectedGraph(T[] vexs, T[][] edges) {
@@ -37,13 +35,14 @@ public class DirectedGraph<T> {
         int eLen = edges.length;
 
         // 顶点赋初值
-        mVertexes = (VertexNode<T>[])new VertexNode[vLen];
+        mVertexes = (T[])new Object[vLen];
         for (int i = 0; i < vLen; i++) {
-            mVertexes[i] = new VertexNode<T>();
-            mVertexes[i].info = vexs[i];
-            mVertexes[i].firstEdge = null;
+            mVertexes[i] = vexs[i];
         }
+        mVertexSize = vLen;
+        mDictionary = VertexDictionary.of(vexs);
 
+        CompressedSparseRow.Builder builder = new CompressedSparseRow.Builder(vLen, eLen);
         for (int i = 0; i < eLen; i++) {
             // 边edges[i]的起始顶点在mVertexes[i]的位置
             int sp = index(edges[i][0]);
@@ -52,137 +51,274 @@ public class DirectedGraph<T> {
             if (sp == -1 || ep == -1) {
                 continue;
             }
-            // 初始化上sNode
-            AdjacentNode sNode = new AdjacentNode();
-            sNode.vexIdx = ep;
-            // 将sNode链接到"顶点sp所指向的链表的末尾"
-            if (mVertexes[sp].firstEdge == null) {
-                mVertexes[sp].firstEdge = sNode;
-            } else {
-                linkLast(mVertexes[sp].firstEdge, sNode);
-            }
+            builder.addEdge(sp, ep);
         }
+        mAdjacency = builder.build();
     }
 
-    @SuppressWarnings("unchecked")
-    private DirectedGraph(VertexNode<T>[] vertexes) {
-        int vLen = vertexes.length;
-        mVertexes = (VertexNode<T>[])new VertexNode[vLen];
-        for (int i = 0; i< vLen; i++) {
-            mVertexes[i] = vertexes[i];
-        }
+    DirectedGraph(T[] vertexes, int vertexSize, VertexDictionary<T> dictionary, Adjacency adjacency) {
+        mVertexes = vertexes;
+        mVertexSize = vertexSize;
+        mDictionary = dictionary;
+        mSharedVertexes = true;
+        mAdjacency = adjacency;
     }
 
     /**
-     * 将node节点链接到list的尾部
+     * 邻接关系的只读视图
      */
-    private void linkLast(AdjacentNode list, AdjacentNode node) {
-        AdjacentNode p = list;
-        while (p.nextEdge != null) {
-            p = p.nextEdge;
-        }
-        p.nextEdge = node;
+    Adjacency adjacency() {
+        return mAdjacency;
+    }
+
+    /**
+     * 顶点信息到顶点序号的字典
+     */
+    VertexDictionary<T> dictionary() {
+        return mDictionary;
     }
 
     /**
      * 返回item在mVertexes中的位置
      */
     public int index(T item) {
-        for (int i = vertexSize() - 1; i >= 0; i--) {
-            if (item == mVertexes[i].info) {
-                return i;
-            }
-        }
-        return -1;
+        return mDictionary.index(item);
     }
 
     /**
-     * 深度优先搜索遍历图的递归实现
+     * 深度优先搜索遍历图
      */
-    private void dfs(boolean[] visited, int i, ArrayList<T> list) {
-        visited[i] = true;
-        list.add(mVertexes[i].info);
+    public T[] dfs() {
+        return dfs(TraversalContext.local());
+    }
 
-        AdjacentNode edge = mVertexes[i].firstEdge;
-        while (edge != null) {
-            if (!visited[edge.vexIdx]) {
-                dfs(visited, edge.vexIdx, list);
-            }
-            edge = edge.nextEdge;
+    /**
+     * 用context中的访问标记和栈深度优先搜索遍历图，除结果外不分配内存
+     */
+    public T[] dfs(TraversalContext context) {
+        return Traversal.vertexes(mVertexes, Traversal.dfs(mAdjacency, context, "DirectedGraph.dfs"));
+    }
+
+    /**
+     * 广度优先搜索遍历图
+     */
+    public T[] bfs() {
+        return bfs(TraversalContext.local());
+    }
+
+    /**
+     * 用context中的访问标记和队列广度优先搜索遍历图，除结果外不分配内存
+     */
+    public T[] bfs(TraversalContext context) {
+        return Traversal.vertexes(mVertexes, Traversal.bfs(mAdjacency, context, "DirectedGraph.bfs"));
+    }
+
+    /**
+     * 深度优先搜索遍历整个图，按先序把顶点序号依次交给visitor，
+     * visitor返回false时立即终止，返回是否遍历完所有顶点
+     */
+    public boolean dfs(VertexVisitor visitor) {
+        return dfs(visitor, new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组遍历，visitor中不能再用同一个context遍历
+     */
+    public boolean dfs(VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.DfsIterator(mAdjacency, -1, context), visitor);
+    }
+
+    /**
+     * 从顶点数组中序号为source的顶点开始深度优先搜索，只访问从它可达的顶点
+     */
+    public boolean dfs(int source, VertexVisitor visitor) {
+        return dfs(source, visitor, new TraversalContext());
+    }
+
+    public boolean dfs(int source, VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.DfsIterator(mAdjacency, source, context), visitor);
+    }
+
+    /**
+     * 广度优先搜索遍历整个图，按访问顺序把顶点序号依次交给visitor，
+     * visitor返回false时立即终止，返回是否遍历完所有顶点
+     */
+    public boolean bfs(VertexVisitor visitor) {
+        return bfs(visitor, new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组遍历，visitor中不能再用同一个context遍历
+     */
+    public boolean bfs(VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.BfsIterator(mAdjacency, -1, context), visitor);
+    }
+
+    /**
+     * 从顶点数组中序号为source的顶点开始广度优先搜索，只访问从它可达的顶点
+     */
+    public boolean bfs(int source, VertexVisitor visitor) {
+        return bfs(source, visitor, new TraversalContext());
+    }
+
+    public boolean bfs(int source, VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.BfsIterator(mAdjacency, source, context), visitor);
+    }
+
+    /**
+     * 按深度优先的先序惰性产生顶点序号的流，只遍历被消费的部分
+     */
+    public IntStream dfsStream() {
+        return dfsStream(new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组产生流，流被消费完之前不能再用同一个context遍历
+     */
+    public IntStream dfsStream(TraversalContext context) {
+        return Traversal.stream(new Traversal.DfsIterator(mAdjacency, -1, context), mVertexSize);
+    }
+
+    /**
+     * 按广度优先的访问顺序惰性产生顶点序号的流，只遍历被消费的部分
+     */
+    public IntStream bfsStream() {
+        return bfsStream(new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组产生流，流被消费完之前不能再用同一个context遍历
+     */
+    public IntStream bfsStream(TraversalContext context) {
+        return Traversal.stream(new Traversal.BfsIterator(mAdjacency, -1, context), mVertexSize);
+    }
+
+    /**
+     * 添加一个没有边的顶点，返回它在顶点数组中的序号，已有顶点的序号保持不变
+     */
+    public int addVertex(T info) {
+        DynamicAdjacency adjacency = mutable();
+        if (mSharedVertexes) {
+            // 与反向图共用的顶点数组和字典不能原地修改
+            mVertexes = Arrays.copyOf(mVertexes, Math.max(mVertexSize + 1, mVertexes.length));
+            mDictionary = VertexDictionary.of(Arrays.copyOf(mVertexes, mVertexSize));
+            mSharedVertexes = false;
         }
+        if (mVertexSize == mVertexes.length) {
+            mVertexes = Arrays.copyOf(mVertexes, Math.max(4, mVertexSize + (mVertexSize >> 1)));
+        }
+        int v = adjacency.addVertex();
+        mVertexes[v] = info;
+        mDictionary.put(info, v);
+        mVertexSize++;
+        mVersion++;
+        return v;
     }
 
     /**
-     * 深度优先搜索遍历图
+     * 添加一条由顶点数组中序号为sp的顶点指向序号为ep的顶点的边，均摊O(1)
      */
-    @SuppressWarnings("unchecked")
-    public T[] dfs() {
-        ArrayList<T> list = new ArrayList<>();
+    public void addEdge(int sp, int ep) {
+        mutable().addEdge(sp, ep);
+        mVersion++;
+    }
 
-        int vLen = vertexSize();
-        boolean[] visited = new boolean[vLen];
+    /**
+     * 添加一条由顶点sp指向顶点ep的边
+     */
+    public void addEdge(T sp, T ep) {
+        addEdge(indexOrThrow(sp), indexOrThrow(ep));
+    }
 
-        for (int i = 0; i < vLen; i++) {
-            if (!visited[i]) {
-                dfs(visited, i, list);
-            }
+    /**
+     * 删除一条由顶点数组中序号为sp的顶点指向序号为ep的顶点的边，返回是否删除成功
+     * 需要在sp的邻接顶点中查找，为O(sp的出度)
+     */
+    public boolean removeEdge(int sp, int ep) {
+        if (!mutable().removeEdge(sp, ep)) {
+            return false;
         }
+        mVersion++;
+        return true;
+    }
 
-        System.out.println("DFS: " + list.toString());
-        return (T[])list.toArray();
+    /**
+     * 删除一条由顶点sp指向顶点ep的边，返回是否删除成功
+     */
+    public boolean removeEdge(T sp, T ep) {
+        return removeEdge(indexOrThrow(sp), indexOrThrow(ep));
     }
 
     /**
-     * 广度优先搜索遍历图
+     * 把邻接表重新压缩为只读的CSR，适合在批量修改结束后、大量遍历之前调用
+     */
+    public void compact() {
+        mAdjacency = CompressedSparseRow.copyOf(mAdjacency);
+    }
+
+    /**
+     * 把图写入二进制文件file，顶点须全部是Integer、Long、Character或String中的同一种
+     */
+    public void save(Path file) throws IOException {
+        GraphFile.write(file, mVertexes, mVertexSize, mAdjacency, true);
+    }
+
+    /**
+     * 读取由save写入的文件：只解码顶点表，邻接表直接映射文件，不复制到Java堆中；
+     * 第一次修改时才会把邻接表复制为可修改的形式
      */
     @SuppressWarnings("unchecked")
-    public T[] bfs() {
-        ArrayList<T> list = new ArrayList<>();
+    public static <T> DirectedGraph<T> load(Path file) throws IOException {
+        GraphFile graphFile = GraphFile.read(file, true);
+        T[] vertexes = (T[])graphFile.vertexes;
+        return of(vertexes, VertexDictionary.of(vertexes), graphFile.adjacency);
+    }
 
-        int vLen = vertexSize();
-        int head = 0;
-        int rear = 0;
-        // 辅组队列
-        int[] queue = new int[vLen];
-        // 顶点访问标记
-        boolean[] visited = new boolean[vLen];
+    /**
+     * 由已经建好的顶点数组、字典和邻接表构造图，不复制
+     */
+    static <T> DirectedGraph<T> of(T[] vertexes, VertexDictionary<T> dictionary, Adjacency adjacency) {
+        return new DirectedGraph<T>(vertexes, vertexes.length, dictionary, adjacency);
+    }
 
-        for (int i = 0; i < vLen; i++) {
-            if (!visited[i]) {
-                visited[i] = true;
-                list.add(mVertexes[i].info);
-                // 入列
-                queue[rear++] = i;
-            }
-            while (head != rear) {
-                // 出列
-                int j = queue[head++];
-                AdjacentNode node = mVertexes[j].firstEdge;
-                while (node != null) {
-                    int k = node.vexIdx;
-                    if (!visited[k]) {
-                        visited[k] = true;
-                        list.add(mVertexes[k].info);
-                        // 入列
-                        queue[rear++] = k;
-                    }
-                    node = node.nextEdge;
-                }
-            }
+    /**
+     * 把邻接表移到Java堆外：偏移为64位，边的数量不受Java数组长度的限制，
+     * 遍历、反向图、强连通分量等算法不受影响；之后的修改仍会把邻接表复制回堆上
+     */
+    public void storeOffHeap() {
+        mAdjacency = OffHeapAdjacency.copyOf(mAdjacency);
+    }
+
+    /**
+     * 修改版本号，每次添加顶点、添加或删除边后加1
+     */
+    public long version() {
+        return mVersion;
+    }
+
+    private int indexOrThrow(T item) {
+        int v = index(item);
+        if (v == -1) {
+            throw new IllegalArgumentException("unknown vertex " + item);
         }
+        return v;
+    }
 
-        System.out.println("BFS: " + list.toString());
-        return (T[])list.toArray();
+    // 第一次修改时把只读的邻接表转换为可修改的形式
+    private DynamicAdjacency mutable() {
+        if (!(mAdjacency instanceof DynamicAdjacency)) {
+            mAdjacency = DynamicAdjacency.copyOf(mAdjacency);
+        }
+        return (DynamicAdjacency)mAdjacency;
     }
 
     public void dump() {
         System.out.printf("List Directed Graph:\n");
         for (int i = 0; i < vertexSize(); i++) {
-            System.out.printf("%d(%c): ", i, mVertexes[i].info);
-            AdjacentNode node = mVertexes[i].firstEdge;
-            while (node != null) {
-                System.out.printf("%d(%c) ", node.vexIdx, mVertexes[node.vexIdx].info);
-                node = node.nextEdge;
+            System.out.printf("%d(%c): ", i, mVertexes[i]);
+            for (int e = mAdjacency.firstEdge(i); e >= 0; e = mAdjacency.nextEdge(i, e)) {
+                int w = mAdjacency.edgeTarget(i, e);
+                System.out.printf("%d(%c) ", w, mVertexes[w]);
             }
             System.out.printf("\n");
         }
@@ -193,202 +329,207 @@ public class DirectedGraph<T> {
      * @return
      */
     public int vertexSize() {
-        return mVertexes.length;
+        return mVertexSize;
     }
 
     /**
      * 获取顶点数组中序号为v的顶点中存储的数组
      */
     public T vertexInfo(int v) {
-        if (v < 0 || v > mVertexes.length - 1) {
+        if (v < 0 || v > mVertexSize - 1) {
             throw new IndexOutOfBoundsException();
         }
-        return mVertexes[v].info;
+        return mVertexes[v];
     }
 
     /**
      * 获取顶点数组中序号为v的顶点的所有连接顶点的序号
      */
     public int[] adjacentVertexIndexes(int v) {
-        ArrayList<Integer> list = new ArrayList<>();
+        return mAdjacency.adjacent(v);
+    }
 
-        AdjacentNode node = mVertexes[v].firstEdge;
-        while (node != null) {
-            list.add(node.vexIdx);
-            node = node.nextEdge;
-        }
+    /**
+     * 判断有向图是否有环，只有指向DFS栈中顶点的边(回边)才构成环
+     */
+    public boolean hasCycle() {
+        return hasCycle(TraversalContext.local());
+    }
 
-        int[] ret = new int[list.size()];
-        for (int i = 0; i < list.size(); i++) {
-            ret[i] = list.get(i);
-        }
-        return ret;
+    public boolean hasCycle(TraversalContext context) {
+        return Traversal.hasDirectedCycle(mAdjacency, context, "DirectedGraph.hasCycle");
     }
 
     /**
-     * 判断有向图是否有环
+     * 拓扑排序，有环时得到一个环
      */
-    public boolean hasCycle() {
-        boolean[] hasCycle = new boolean[1];
-        int vLen = mVertexes.length;
-        boolean[] visited = new boolean[vLen];
-        for (int i = 0; i < vLen; i++) {
-            if (!visited[i]) {
-                // 1.刚开始没有顶点被访问过，当前正访问和上一个被访问的顶点都设置为起点i;
-                // 2.当dfsForCycle被递归调用一次后，当前正访问的参数v是i的一个邻接点，而上一个被访问的参数u是i.
-                dfsForCycle(visited, i, i, hasCycle);
-            }
-        }
-        return hasCycle[0];
-    }
-
-    // v表示当前正访问的顶点，u表示上一个访问的顶点
-    private void dfsForCycle(boolean[] visited, int v, int u, boolean[] hasCycle) {
-        // 设置(顶点数组中序号为v的顶点)顶点v的已访问标记
-        visited[v] = true;
-        // 遍历(顶点数组中序号为v的顶点)顶点v的所有邻接顶点
-        AdjacentNode node = mVertexes[v].firstEdge;
-        while (node != null) {
-            int w = node.vexIdx;
-            if (!visited[w]) {
-                dfsForCycle(visited, w, v, hasCycle);
-            } else if (w != u) {
-                hasCycle[0] = true;
-                return;
-            }
-            node = node.nextEdge;
-        }
+    public TopologicalSort topologicalSort() {
+        return TopologicalSort.sort(mAdjacency);
     }
 
     /**
-     * 获取当前有向图的反向图
+     * 并行求拓扑序和每个顶点的层数，有环时得到一个环
      */
-    public DirectedGraph<T> reverse() {
-        // 顶点数量
-        int vLen = vertexSize();
+    public TopologicalSort topologicalLevels() {
+        return topologicalLevels(ForkJoinPool.commonPool());
+    }
 
-        // 顶点赋初值
-        @SuppressWarnings("unchecked")
-        VertexNode<T>[] vertexes = (VertexNode<T>[])new VertexNode[vLen];
-        for (int i = 0; i < vLen; i++) {
-            VertexNode<T> vertex = new VertexNode<>();;
-            vertex.info = mVertexes[i].info;
-            vertexes[i] = vertex;
-        }
+    public TopologicalSort topologicalLevels(ForkJoinPool pool) {
+        return TopologicalSort.levels(mAdjacency, pool);
+    }
 
-        for (int i = 0; i < vLen; i++) {
-            AdjacentNode node = mVertexes[i].firstEdge;
-            while (node != null) {
-                int vexId = node.vexIdx;
-                AdjacentNode edge = new AdjacentNode();
-                edge.vexIdx = i;
-                if (vertexes[vexId].firstEdge == null) {
-                    vertexes[vexId].firstEdge = edge;
-                } else {
-                    linkLast(vertexes[vexId].firstEdge, edge);
-                }
-                node = node.nextEdge;
-            }
+    /**
+     * 从顶点数组中序号为source的顶点开始并行广度优先搜索，
+     * 得到每个顶点的层数和BFS树上的父顶点
+     */
+    public ParallelBfs parallelBfs(int source) {
+        return new ParallelBfs(this, source);
+    }
+
+    /**
+     * 双向广度优先搜索从顶点数组中序号为source的顶点到序号为target的顶点的最短路径(边数最少)，
+     * 返回路径上的所有顶点序号，不可达则返回空数组
+     */
+    public int[] shortestPath(int source, int target) {
+        return shortestPath(source, target, TraversalContext.local());
+    }
+
+    /**
+     * 同shortestPath(source, target)，两侧的访问标记、父顶点和队列使用context，
+     * 时间只与搜索到的顶点和边成正比
+     */
+    public int[] shortestPath(int source, int target, TraversalContext context) {
+        return BidirectionalBfs.path(mAdjacency, inEdges(), source, target, context);
+    }
+
+    /**
+     * 反向的邻接表(入边)，图被修改前一直复用；堆外的图的入边也放在堆外
+     */
+    Adjacency inEdges() {
+        return mInEdges.get(mAdjacency, mVersion);
+    }
+
+    /**
+     * 构建可达性索引，图修改后需要重新构建
+     */
+    public ReachabilityIndex reachabilityIndex() {
+        return new ReachabilityIndex(this);
+    }
+
+    /**
+     * 逆Cuthill-McKee顺序，按忽略方向的边计算，使边的两个端点的序号尽量接近
+     */
+    public VertexOrdering reverseCuthillMcKee() {
+        return VertexOrdering.reverseCuthillMcKee(mAdjacency, inEdges());
+    }
+
+    /**
+     * 按度(出度与入度之和)从大到小的顺序
+     */
+    public VertexOrdering degreeOrdering() {
+        return VertexOrdering.degreeDescending(mAdjacency, inEdges());
+    }
+
+    /**
+     * 从度最大的顶点开始、忽略边的方向的广度优先顺序
+     */
+    public VertexOrdering bfsOrdering() {
+        return VertexOrdering.bfs(mAdjacency, inEdges());
+    }
+
+    /**
+     * 按ordering重新编号得到的新图，原图不变：新图中序号为i的顶点是原图中序号为ordering.original(i)的顶点，
+     * 每个顶点的邻接顶点按新序号升序排列，邻接表放在堆上
+     */
+    public DirectedGraph<T> reorder(VertexOrdering ordering) {
+        if (ordering.size() != mVertexSize) {
+            throw new IllegalArgumentException("ordering size " + ordering.size() + " != vertex size " + mVertexSize);
         }
+        T[] vertexes = ordering.relabel(mVertexes);
+        return new DirectedGraph<T>(vertexes, mVertexSize, VertexDictionary.of(vertexes),
+                ordering.relabel(mAdjacency));
+    }
 
-        return new DirectedGraph<T>(vertexes);
+    /**
+     * 获取当前有向图的反向图
+     */
+    public DirectedGraph<T> reverse() {
+        mSharedVertexes = true;
+        // 堆外的图的反向图也放在堆外
+        return new DirectedGraph<T>(mVertexes, mVertexSize, mDictionary, TransposeCache.transpose(mAdjacency));
     }
 
 /****************************************************************************************************************
- Kosaraju算法求解有向图的强连通分量：
- 1. 需要保证被指向的强连通分量的至少一个顶点排在该连通分量的所有顶点前面,Kosaraju给出的解决办法:
- (1)对原图取反;
- (2)从反向图的任意节点开始, 进行DFS的逆后序遍历, 逆后序得到的顺序一定满足我们的要求.
- 2. DFS的逆后序遍历:
- (1)若当前顶点未访问,先遍历完与当前顶点邻接且未被访问的所有其它顶点
- (2)将当前顶点加入栈中,最后栈中从栈顶到栈底的顺序就是我们需要的顶点顺序。
+ Pearce算法(节省内存的Tarjan算法)求解有向图的强连通分量：
+ 1. 对原图做一次DFS, 给每个顶点一个访问序号rindex, 并用它记录该顶点能回溯到的最小序号;
+ 2. 若某顶点的所有邻接顶点遍历完后rindex没有变小, 它就是一个强连通分量的根,
+    辅助栈中在它之后入栈的顶点与它构成一个强连通分量;
+ 3. 不需要构造反向图, DFS由Traversal以显式栈完成, 除几个长度为顶点数量的数组外不再分配内存.
  ****************************************************************************************************************/
     public static class StronglyConnectedComponent<T> {
-        private DirectedGraph<T> mGraph;
-
-        // 标识顶点是否已经被访问过
-        private boolean[] mVisited;
         // 给每个顶点标识一个id，id相同的顶点构成一个强连通分量
+        // 分量按在DFS中完成的先后编号，即缩点图的逆拓扑序
         private int[] mIds;
+        // 每个强连通分量包含的顶点数量
+        private int[] mSizes;
         // 强连通分量的个数
         private int mCount;
 
         public StronglyConnectedComponent(DirectedGraph<T> graph) {
-            this.mGraph = graph;
-
+            Instrumentation.Probe probe = Instrumentation.begin("DirectedGraph.StronglyConnectedComponent");
             int vLen = graph.vertexSize();
-            mVisited = new boolean[vLen];
             mIds = new int[vLen];
-            mCount = 0;
-
-            // 获取有向图的反向图
-            DirectedGraph<T> reversedGraph = graph.reverse();
-            // 反向图DFS的逆后序，可以从任意顶点开始
-            LinkedList<Integer> stack = reversePostOrder(reversedGraph, 0);
-            while (!stack.isEmpty()) {
-                int v = stack.pop();
-                if (!mVisited[v]) {
-                    dfs(graph, v);
-                    mCount++;
-                }
+            Traversal traversal = new Traversal(graph.mAdjacency);
+            mCount = traversal.stronglyConnected(mIds);
+            mSizes = new int[mCount];
+            for (int v = 0; v < vLen; v++) {
+                mSizes[mIds[v]]++;
+            }
+            if (probe != null) {
+                probe.end(vLen, traversal);
             }
         }
 
-        private void dfs(DirectedGraph<T> graph, int v) {
-            if (!mVisited[v]) {
-                mVisited[v] = true;
-                mIds[v] = mCount;
-                for (int w : graph.adjacentVertexIndexes(v)) {
-                    dfs(graph, w);
-                }
-            }
+        /**
+         * 获取有向图的强连通分量的数量
+         */
+        public int count() {
+            return this.mCount;
         }
 
-        private LinkedList<Integer> reversePostOrder(DirectedGraph<T> graph, int v) {
-            LinkedList<Integer> stack = new LinkedList<>();
-            int vLen = graph.vertexSize();
-            boolean[] visited = new boolean[vLen];
-            for (int i = 0; i < vLen; i++) {
-                dfsForReversePostOrder(graph, visited, stack, i);
-            }
-            return stack;
+        /**
+         * 顶点数组中序号为v的顶点所在强连通分量的id，范围为[0, count())
+         */
+        public int id(int v) {
+            return mIds[v];
         }
 
-        private void dfsForReversePostOrder(DirectedGraph<T> graph,
-                boolean[] visited, LinkedList<Integer> stack, int v) {
-            if (!visited[v]) {
-                visited[v] = true;
-                for (int w : graph.adjacentVertexIndexes(v)) {
-                    dfsForReversePostOrder(graph, visited, stack, w);
-                }
-                stack.push(v);
-            }
+        /**
+         * id为id的强连通分量包含的顶点数量
+         */
+        public int size(int id) {
+            return mSizes[id];
         }
 
         /**
-         * 获取有向图的强连通分量的数量
+         * 顶点数组中序号为v的顶点和序号为w的顶点是否强连通
          */
-        public int count() {
-            return this.mCount;
+        public boolean connected(int v, int w) {
+            return mIds[v] == mIds[w];
         }
 
         /**
-         * 获取顶点数组中序号为v的顶点的所有邻接点的序号
+         * 获取与顶点数组中序号为v的顶点强连通的所有顶点的序号
          */
         public int[] allConnected(int v){
-            ArrayList<Integer> list = new ArrayList<>();
             int id = mIds[v];
-            for (int i = 0; i < this.mGraph.vertexSize(); i++) {
+            int[] ret = new int[mSizes[id]];
+            int size = 0;
+            for (int i = 0; i < mIds.length; i++) {
                 if (mIds[i] == id) {
-                    list.add(i);
+                    ret[size++] = i;
                 }
             }
-            int[] ret = new int[list.size()];
-            for (int i = 0; i < list.size(); i++) {
-                ret[i] = list.get(i);
-            }
-            list.clear();
-            list = null;
             return ret;
         }
     }
@@ -401,9 +542,15 @@ public class DirectedGraph<T> {
 
         DirectedGraph<Character> graph = new DirectedGraph<>(vexs, edges);
         graph.dump();
-        graph.dfs();
-        graph.bfs();
+        System.out.println("DFS: " + Arrays.toString(graph.dfs()));
+        System.out.println("BFS: " + Arrays.toString(graph.bfs()));
         System.out.println("current graph does " + (graph.hasCycle() ? "" : "not ") + "have cycle");
+        int[] cycle = graph.topologicalSort().cycle();
+        Character[] cycleVexs = new Character[cycle.length];
+        for (int i = 0; i < cycle.length; i++) {
+            cycleVexs[i] = graph.vertexInfo(cycle[i]);
+        }
+        System.out.println("cycle: " + Arrays.toString(cycleVexs));
         System.out.println();
 
         StronglyConnectedComponent<Character> scc = new StronglyConnectedComponent<>(graph);
@@ -426,6 +573,7 @@ public class DirectedGraph<T> {
         DFS: [A, B, C, E, D, F, G]
         BFS: [A, B, C, E, F, D, G]
         current graph does have cycle
+        cycle: [B, C, E]
 
         numder of the strongly connected component in current directed graph is 4
         all strongly connected vertexes for vertex B in current directed graph are [B, C, D, E]
@@ -0,0 +1,138 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 可修改的邻接表：每个顶点的邻接顶点存放在一个按需扩容的int[]中
+ * 添加顶点和边均摊O(1)；删除边需要先在起始顶点的邻接顶点中查找，为O(出度)，
+ * 删除后其余邻接顶点保持原来的顺序，顶点序号始终不变
+ *
+ * @author tuhailong
+ */
+final class DynamicAdjacency implements Adjacency {
+    private static final int[] EMPTY_ROW = new int[0];
+
+    // mRows[v][0, mDegrees[v])为顶点v的邻接顶点
+    private int[][] mRows;
+    // 每个顶点的出度
+    private int[] mDegrees;
+    // 顶点数量
+    private int mVertexSize;
+    // 边的数量
+    private long mEdgeSize;
+
+    DynamicAdjacency(int vertexSize) {
+        mRows = new int[Math.max(vertexSize, 4)][];
+        mDegrees = new int[mRows.length];
+        Arrays.fill(mRows, EMPTY_ROW);
+        mVertexSize = vertexSize;
+    }
+
+    /**
+     * 复制adjacency中的所有边，邻接顶点的顺序不变
+     */
+    static DynamicAdjacency copyOf(Adjacency adjacency) {
+        int vLen = adjacency.vertexSize();
+        DynamicAdjacency ret = new DynamicAdjacency(vLen);
+        for (int v = 0; v < vLen; v++) {
+            int degree = adjacency.degree(v);
+            if (degree == 0) {
+                continue;
+            }
+            int[] row = new int[degree];
+            int size = 0;
+            for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                row[size++] = adjacency.edgeTarget(v, e);
+            }
+            ret.mRows[v] = row;
+            ret.mDegrees[v] = size;
+            ret.mEdgeSize += size;
+        }
+        return ret;
+    }
+
+    @Override
+    public int vertexSize() {
+        return mVertexSize;
+    }
+
+    @Override
+    public int degree(int v) {
+        return mDegrees[v];
+    }
+
+    // 游标即边在mRows[v]中的位置
+    @Override
+    public int firstEdge(int v) {
+        return mDegrees[v] > 0 ? 0 : -1;
+    }
+
+    @Override
+    public int nextEdge(int v, int e) {
+        return e + 1 < mDegrees[v] ? e + 1 : -1;
+    }
+
+    @Override
+    public int edgeTarget(int v, int e) {
+        return mRows[v][e];
+    }
+
+    long edgeSize() {
+        return mEdgeSize;
+    }
+
+    /**
+     * 添加一个没有边的顶点，返回它的序号
+     */
+    int addVertex() {
+        if (mVertexSize == mRows.length) {
+            int newLen = mRows.length + (mRows.length >> 1);
+            mRows = Arrays.copyOf(mRows, newLen);
+            mDegrees = Arrays.copyOf(mDegrees, newLen);
+            Arrays.fill(mRows, mVertexSize, newLen, EMPTY_ROW);
+        }
+        return mVertexSize++;
+    }
+
+    /**
+     * 在顶点sp的邻接顶点的末尾添加ep
+     */
+    void addEdge(int sp, int ep) {
+        checkVertex(sp);
+        checkVertex(ep);
+        int[] row = mRows[sp];
+        int degree = mDegrees[sp];
+        if (degree == row.length) {
+            row = Arrays.copyOf(row, Math.max(4, degree + (degree >> 1)));
+            mRows[sp] = row;
+        }
+        row[degree] = ep;
+        mDegrees[sp] = degree + 1;
+        mEdgeSize++;
+    }
+
+    /**
+     * 删除一条由sp指向ep的边，存在多条时删除最早添加的一条，返回是否删除成功
+     */
+    boolean removeEdge(int sp, int ep) {
+        checkVertex(sp);
+        checkVertex(ep);
+        int[] row = mRows[sp];
+        int degree = mDegrees[sp];
+        for (int i = 0; i < degree; i++) {
+            if (row[i] == ep) {
+                System.arraycopy(row, i + 1, row, i, degree - i - 1);
+                mDegrees[sp] = degree - 1;
+                mEdgeSize--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= mVertexSize) {
+            throw new IndexOutOfBoundsException("vertex " + v);
+        }
+    }
+}
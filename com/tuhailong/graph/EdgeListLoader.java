@@ -0,0 +1,465 @@
+package com.tuhailong.graph;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 从边列表文本文件构建图，每行一条边："起始顶点 终止顶点 [权重]"，
+ * 字段之间以空格、制表符或逗号分隔，空行和以'#'或'%'开头的行被忽略；
+ * 读取带权图时权重列为边的权重，没有权重列的行权重为1，读取不带权的图时权重列被跳过
+ * 1. 文件按CHUNK_SIZE分块，每块映射到内存后由pool中的线程并行解析：
+ *    块内的顶点先在局部字典中编号，边以局部序号记录在int[]中；
+ * 2. 各块按文件中的顺序依次合并：局部字典中的每个顶点只在全局字典中查找一次，
+ *    再把局部序号换成全局序号交给CSR构建器，文件可能包含超过2^31条边时在堆外构建；
+ * 3. 同时最多有2倍并行度个块已解析而未合并，内存峰值与文件大小无关(CSR本身除外)；
+ * 4. 带权图的权重按合并的顺序收集，CSR构建完成后按相同的稳定计数排序放到每条边的位置上，
+ *    边的数量受Java数组长度的限制，总是在堆上构建。
+ * 顶点序号按在文件中第一次出现的先后分配，与用相同顺序的顶点数组和边数组调用构造函数的结果一致
+ *
+ * @author tuhailong
+ */
+public final class EdgeListLoader {
+    // 每块的字节数
+    private static final int CHUNK_SIZE = 8 << 20;
+    // 一行的最大字节数
+    private static final int MAX_LINE = 1 << 20;
+
+    private final FileChannel mChannel;
+    private final long mFileSize;
+    private final Path mFile;
+    // 顶点是整数(long)还是字符串
+    private final boolean mNumeric;
+    // 是否为无向图，无向边存为两条方向相反的有向边
+    private final boolean mUndirected;
+    // 是否读取权重列
+    private final boolean mWeighted;
+
+    // 全局字典、顶点和构建器，只在合并时由调用线程访问
+    private VertexDictionary.OfLong mLongDictionary;
+    private long[] mLongKeys;
+    private VertexDictionary<String> mStringDictionary;
+    private ArrayList<String> mStringKeys;
+    private Adjacency.Builder mBuilder;
+    // 按添加到构建器的顺序排列的权重
+    private double[] mWeights;
+    private int mWeightSize;
+
+    private EdgeListLoader(FileChannel channel, Path file, boolean numeric, boolean undirected, boolean weighted)
+            throws IOException {
+        this.mChannel = channel;
+        this.mFileSize = channel.size();
+        this.mFile = file;
+        this.mNumeric = numeric;
+        this.mUndirected = undirected;
+        this.mWeighted = weighted;
+        // 每行至少4个字节，边可能超过2^31条时在堆外构建
+        if (!weighted && mFileSize / 4 * (undirected ? 2 : 1) > Integer.MAX_VALUE - 8) {
+            this.mBuilder = new OffHeapAdjacency.Builder(0);
+        } else {
+            // 按平均每条边16字节估计边的数量
+            int expected = (int)Math.min(mFileSize / 16 * (undirected ? 2 : 1), Integer.MAX_VALUE - 8);
+            this.mBuilder = new CompressedSparseRow.Builder(0, expected);
+            if (weighted) {
+                mWeights = new double[Math.max(expected, 4)];
+            }
+        }
+        if (numeric) {
+            mLongDictionary = new VertexDictionary.OfLong(1024);
+            mLongKeys = new long[1024];
+        } else {
+            mStringDictionary = new VertexDictionary<>(1024);
+            mStringKeys = new ArrayList<>();
+        }
+    }
+
+    /**
+     * 读取顶点为整数的有向图
+     */
+    public static DirectedGraph<Long> loadDirected(Path file) throws IOException {
+        return loadDirected(file, ForkJoinPool.commonPool());
+    }
+
+    public static DirectedGraph<Long> loadDirected(Path file, ForkJoinPool pool) throws IOException {
+        EdgeListLoader loader = load(file, pool, true, false, false);
+        Long[] vertexes = loader.longVertexes();
+        return DirectedGraph.of(vertexes, loader.mLongDictionary, loader.mBuilder.build());
+    }
+
+    /**
+     * 读取顶点为整数的无向图
+     */
+    public static UndirectedGraph<Long> loadUndirected(Path file) throws IOException {
+        return loadUndirected(file, ForkJoinPool.commonPool());
+    }
+
+    public static UndirectedGraph<Long> loadUndirected(Path file, ForkJoinPool pool) throws IOException {
+        EdgeListLoader loader = load(file, pool, true, true, false);
+        Long[] vertexes = loader.longVertexes();
+        return UndirectedGraph.of(vertexes, loader.mLongDictionary, loader.mBuilder.build());
+    }
+
+    /**
+     * 读取顶点为字符串的有向图
+     */
+    public static DirectedGraph<String> loadDirectedWithStringKeys(Path file, ForkJoinPool pool)
+            throws IOException {
+        EdgeListLoader loader = load(file, pool, false, false, false);
+        String[] vertexes = loader.mStringKeys.toArray(new String[0]);
+        return DirectedGraph.of(vertexes, loader.mStringDictionary, loader.mBuilder.build());
+    }
+
+    /**
+     * 读取顶点为字符串的无向图
+     */
+    public static UndirectedGraph<String> loadUndirectedWithStringKeys(Path file, ForkJoinPool pool)
+            throws IOException {
+        EdgeListLoader loader = load(file, pool, false, true, false);
+        String[] vertexes = loader.mStringKeys.toArray(new String[0]);
+        return UndirectedGraph.of(vertexes, loader.mStringDictionary, loader.mBuilder.build());
+    }
+
+    /**
+     * 读取顶点为整数的带权有向图
+     */
+    public static WeightedDirectedGraph<Long> loadWeightedDirected(Path file) throws IOException {
+        return loadWeightedDirected(file, ForkJoinPool.commonPool());
+    }
+
+    public static WeightedDirectedGraph<Long> loadWeightedDirected(Path file, ForkJoinPool pool) throws IOException {
+        EdgeListLoader loader = load(file, pool, true, false, true);
+        CompressedSparseRow.Builder builder = (CompressedSparseRow.Builder)loader.mBuilder;
+        return new WeightedDirectedGraph<>(loader.longVertexes(), loader.mLongDictionary, builder.build(),
+                builder.place(loader.mWeights));
+    }
+
+    /**
+     * 读取顶点为整数的带权无向图
+     */
+    public static WeightedUndirectedGraph<Long> loadWeightedUndirected(Path file) throws IOException {
+        return loadWeightedUndirected(file, ForkJoinPool.commonPool());
+    }
+
+    public static WeightedUndirectedGraph<Long> loadWeightedUndirected(Path file, ForkJoinPool pool)
+            throws IOException {
+        EdgeListLoader loader = load(file, pool, true, true, true);
+        CompressedSparseRow.Builder builder = (CompressedSparseRow.Builder)loader.mBuilder;
+        return new WeightedUndirectedGraph<>(loader.longVertexes(), loader.mLongDictionary, builder.build(),
+                builder.place(loader.mWeights));
+    }
+
+    /**
+     * 读取顶点为字符串的带权有向图
+     */
+    public static WeightedDirectedGraph<String> loadWeightedDirectedWithStringKeys(Path file, ForkJoinPool pool)
+            throws IOException {
+        EdgeListLoader loader = load(file, pool, false, false, true);
+        CompressedSparseRow.Builder builder = (CompressedSparseRow.Builder)loader.mBuilder;
+        return new WeightedDirectedGraph<>(loader.mStringKeys.toArray(new String[0]), loader.mStringDictionary,
+                builder.build(), builder.place(loader.mWeights));
+    }
+
+    /**
+     * 读取顶点为字符串的带权无向图
+     */
+    public static WeightedUndirectedGraph<String> loadWeightedUndirectedWithStringKeys(Path file, ForkJoinPool pool)
+            throws IOException {
+        EdgeListLoader loader = load(file, pool, false, true, true);
+        CompressedSparseRow.Builder builder = (CompressedSparseRow.Builder)loader.mBuilder;
+        return new WeightedUndirectedGraph<>(loader.mStringKeys.toArray(new String[0]), loader.mStringDictionary,
+                builder.build(), builder.place(loader.mWeights));
+    }
+
+    private static EdgeListLoader load(Path file, ForkJoinPool pool, boolean numeric, boolean undirected,
+            boolean weighted) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            EdgeListLoader loader = new EdgeListLoader(channel, file, numeric, undirected, weighted);
+            loader.run(pool);
+            return loader;
+        }
+    }
+
+    private void run(ForkJoinPool pool) throws IOException {
+        int window = Math.max(2, pool.getParallelism() * 2);
+        ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+        long next = 0;
+        try {
+            while (next < mFileSize || !pending.isEmpty()) {
+                while (next < mFileSize && pending.size() < window) {
+                    long start = next;
+                    pending.add(pool.submit(() -> parse(start)));
+                    next += CHUNK_SIZE;
+                }
+                merge(await(pending.poll()));
+            }
+        } finally {
+            // 出错时取消尚未合并的块
+            for (Future<Chunk> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            // ForkJoinPool把Callable抛出的受检异常包装为RuntimeException，
+            // 在其他线程中get时还会再包装一层，一直展开到IOException
+            for (Throwable t = cause; t != null; t = t.getCause()) {
+                if (t instanceof IOException) {
+                    cause = t;
+                    break;
+                }
+            }
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 一块的解析结果：块内顶点的局部序号和边
+     */
+    private static final class Chunk {
+        // 按局部序号排列的顶点
+        long[] longKeys = new long[64];
+        ArrayList<String> stringKeys;
+        int keySize;
+        // 每条边占两个元素：起始顶点和终止顶点的局部序号
+        int[] edges = new int[256];
+        int edgeSize;
+        // 每条边的权重，只在读取带权图时记录
+        double[] weights;
+    }
+
+    /**
+     * 合并一块：先为块内的每个顶点确定全局序号，再按顺序添加边
+     */
+    private void merge(Chunk chunk) throws IOException {
+        int[] map = new int[chunk.keySize];
+        for (int i = 0; i < chunk.keySize; i++) {
+            if (mNumeric) {
+                long key = chunk.longKeys[i];
+                int id = mLongDictionary.indexOf(key);
+                if (id == -1) {
+                    id = mBuilder.addVertex();
+                    mLongDictionary.put(key, id);
+                    if (id == mLongKeys.length) {
+                        mLongKeys = Arrays.copyOf(mLongKeys, id + (id >> 1));
+                    }
+                    mLongKeys[id] = key;
+                }
+                map[i] = id;
+            } else {
+                String key = chunk.stringKeys.get(i);
+                int id = mStringDictionary.index(key);
+                if (id == -1) {
+                    id = mBuilder.addVertex();
+                    mStringDictionary.put(key, id);
+                    mStringKeys.add(key);
+                }
+                map[i] = id;
+            }
+        }
+        int[] edges = chunk.edges;
+        for (int i = 0; i < chunk.edgeSize; i += 2) {
+            int sp = map[edges[i]];
+            int ep = map[edges[i + 1]];
+            mBuilder.addEdge(sp, ep);
+            if (mUndirected) {
+                mBuilder.addEdge(ep, sp);
+            }
+            if (mWeighted) {
+                double weight = chunk.weights[i >> 1];
+                addWeight(weight);
+                if (mUndirected) {
+                    addWeight(weight);
+                }
+            }
+        }
+    }
+
+    private void addWeight(double weight) throws IOException {
+        if (mWeightSize == mWeights.length) {
+            if (mWeightSize == Integer.MAX_VALUE - 8) {
+                throw new IOException(mFile + ": too many edges for a weighted graph");
+            }
+            long newLen = Math.min(mWeightSize + (long)(mWeightSize >> 1), Integer.MAX_VALUE - 8);
+            mWeights = Arrays.copyOf(mWeights, (int)newLen);
+        }
+        mWeights[mWeightSize++] = weight;
+    }
+
+    private Long[] longVertexes() {
+        int size = mLongDictionary.size();
+        Long[] ret = new Long[size];
+        for (int i = 0; i < size; i++) {
+            ret[i] = mLongKeys[i];
+        }
+        return ret;
+    }
+
+    /**
+     * 解析从start开始的一块：处理起始位置在[start, start + CHUNK_SIZE)中的所有行，
+     * 最后一行可以越过块的末尾
+     */
+    private Chunk parse(long start) throws IOException {
+        long end = Math.min(start + CHUNK_SIZE, mFileSize);
+        // 多映射前一个字节，用来判断start是否恰好是一行的开头
+        long from = start == 0 ? 0 : start - 1;
+        long len = Math.min(mFileSize - from, end - from + MAX_LINE);
+        MappedByteBuffer buf = mChannel.map(FileChannel.MapMode.READ_ONLY, from, len);
+        int limit = buf.limit();
+        int stop = (int)(end - from);
+
+        Chunk chunk = new Chunk();
+        VertexDictionary.OfLong longLocal = null;
+        VertexDictionary<String> stringLocal = null;
+        if (mNumeric) {
+            longLocal = new VertexDictionary.OfLong(64);
+        } else {
+            stringLocal = new VertexDictionary<>(64);
+            chunk.stringKeys = new ArrayList<>();
+        }
+        if (mWeighted) {
+            chunk.weights = new double[128];
+        }
+
+        // 当前行两个顶点的局部序号
+        int[] ids = new int[2];
+        int pos = 0;
+        if (start > 0) {
+            // 跳过属于上一块的半行
+            while (pos < limit && buf.get(pos) != '\n') {
+                pos++;
+            }
+            pos++;
+        }
+        while (pos < stop) {
+            int lineEnd = pos;
+            while (lineEnd < limit && buf.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == limit && from + limit < mFileSize) {
+                throw new IOException(mFile + ": line at byte " + (from + pos) + " is longer than " + MAX_LINE);
+            }
+            int p = skipSeparators(buf, pos, lineEnd);
+            if (p < lineEnd && buf.get(p) != '#' && buf.get(p) != '%') {
+                for (int k = 0; k < 2; k++) {
+                    int tokenEnd = tokenEnd(buf, p, lineEnd);
+                    if (tokenEnd == p) {
+                        throw new IOException(mFile + ": expected two vertexes at byte " + (from + pos));
+                    }
+                    if (mNumeric) {
+                        long key = parseLong(buf, p, tokenEnd, from);
+                        int id = longLocal.intern(key);
+                        if (id == chunk.keySize) {
+                            if (id == chunk.longKeys.length) {
+                                chunk.longKeys = Arrays.copyOf(chunk.longKeys, id * 2);
+                            }
+                            chunk.longKeys[chunk.keySize++] = key;
+                        }
+                        ids[k] = id;
+                    } else {
+                        byte[] bytes = new byte[tokenEnd - p];
+                        buf.get(p, bytes);
+                        String key = new String(bytes, StandardCharsets.UTF_8);
+                        int id = stringLocal.intern(key);
+                        if (id == chunk.keySize) {
+                            chunk.stringKeys.add(key);
+                            chunk.keySize++;
+                        }
+                        ids[k] = id;
+                    }
+                    p = skipSeparators(buf, tokenEnd, lineEnd);
+                }
+                if (chunk.edgeSize == chunk.edges.length) {
+                    chunk.edges = Arrays.copyOf(chunk.edges, chunk.edgeSize * 2);
+                }
+                if (mWeighted) {
+                    int edge = chunk.edgeSize >> 1;
+                    if (edge == chunk.weights.length) {
+                        chunk.weights = Arrays.copyOf(chunk.weights, edge * 2);
+                    }
+                    chunk.weights[edge] = p < lineEnd ? parseWeight(buf, p, tokenEnd(buf, p, lineEnd), from) : 1;
+                }
+                chunk.edges[chunk.edgeSize++] = ids[0];
+                chunk.edges[chunk.edgeSize++] = ids[1];
+            }
+            pos = lineEnd + 1;
+        }
+        return chunk;
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\t' || b == ',' || b == '\r';
+    }
+
+    private static int skipSeparators(MappedByteBuffer buf, int pos, int end) {
+        while (pos < end && isSeparator(buf.get(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int tokenEnd(MappedByteBuffer buf, int pos, int end) {
+        while (pos < end && !isSeparator(buf.get(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    // 权重的格式与Double.parseDouble相同，不能为NaN
+    private double parseWeight(MappedByteBuffer buf, int pos, int end, long base) throws IOException {
+        byte[] bytes = new byte[end - pos];
+        buf.get(pos, bytes);
+        try {
+            double weight = Double.parseDouble(new String(bytes, StandardCharsets.ISO_8859_1));
+            if (!Double.isNaN(weight)) {
+                return weight;
+            }
+        } catch (NumberFormatException e) {
+            // 与NaN一样报告为格式错误
+        }
+        throw new IOException(mFile + ": bad weight at byte " + (base + pos));
+    }
+
+    // 直接从字节解析十进制整数，不创建字符串
+    private long parseLong(MappedByteBuffer buf, int pos, int end, long base) throws IOException {
+        int p = pos;
+        boolean negative = buf.get(p) == '-';
+        if (negative || buf.get(p) == '+') {
+            p++;
+        }
+        if (p == end) {
+            throw new IOException(mFile + ": bad vertex at byte " + (base + pos));
+        }
+        long value = 0;
+        for (; p < end; p++) {
+            int digit = buf.get(p) - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                throw new IOException(mFile + ": bad vertex at byte " + (base + pos));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,272 @@
+package com.tuhailong.graph;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 邻接表图的二进制文件格式，所有数值均为小端字节序：
+ *   文件头(64字节)：魔数、格式版本、是否有向、顶点类型、顶点数量、边的数量、
+ *                   顶点表的位置和长度、偏移数组的位置、对端顶点数组的位置；
+ *   顶点表：Integer/Long/Character按定长存放，String为(int字节数, UTF-8字节)序列；
+ *   偏移数组：vertexSize + 1个long；
+ *   对端顶点数组：edgeSize个int。
+ * 读取时只解码顶点表，偏移数组和对端顶点数组直接映射到内存，由OffHeapAdjacency访问，
+ * 同一台机器上的多个进程映射同一个文件时共用操作系统的页缓存
+ *
+ * @author tuhailong
+ */
+final class GraphFile {
+    private static final int MAGIC = 0x46524754; // "TGRF"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    // 写文件时使用的缓冲区大小
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private static final int KEY_INT = 1;
+    private static final int KEY_LONG = 2;
+    private static final int KEY_CHAR = 3;
+    private static final int KEY_STRING = 4;
+
+    // 读取得到的顶点数组
+    final Object[] vertexes;
+    // 映射得到的邻接表
+    final OffHeapAdjacency adjacency;
+
+    private GraphFile(Object[] vertexes, OffHeapAdjacency adjacency) {
+        this.vertexes = vertexes;
+        this.adjacency = adjacency;
+    }
+
+    /**
+     * 把顶点数组的前vertexSize个顶点和adjacency写入file，已存在的文件会被覆盖
+     */
+    static void write(Path file, Object[] vertexes, int vertexSize, Adjacency adjacency, boolean directed)
+            throws IOException {
+        int keyType = keyType(vertexes, vertexSize);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(OffHeapAdjacency.ORDER);
+            channel.position(HEADER_SIZE);
+
+            // 顶点表
+            long keysPos = HEADER_SIZE;
+            for (int i = 0; i < vertexSize; i++) {
+                Object key = vertexes[i];
+                if (keyType == KEY_STRING) {
+                    byte[] bytes = ((String)key).getBytes(StandardCharsets.UTF_8);
+                    ensure(channel, buffer, Integer.BYTES);
+                    buffer.putInt(bytes.length);
+                    for (int off = 0; off < bytes.length;) {
+                        ensure(channel, buffer, 1);
+                        int len = Math.min(bytes.length - off, buffer.remaining());
+                        buffer.put(bytes, off, len);
+                        off += len;
+                    }
+                } else {
+                    ensure(channel, buffer, Long.BYTES);
+                    if (keyType == KEY_INT) {
+                        buffer.putInt((Integer)key);
+                    } else if (keyType == KEY_LONG) {
+                        buffer.putLong((Long)key);
+                    } else {
+                        buffer.putChar((Character)key);
+                    }
+                }
+            }
+            long keysLen = position(channel, buffer) - keysPos;
+            // 偏移数组按8字节对齐
+            while ((position(channel, buffer) & 7) != 0) {
+                ensure(channel, buffer, 1);
+                buffer.put((byte)0);
+            }
+
+            // 偏移数组
+            long offsetsPos = position(channel, buffer);
+            long offset = 0;
+            for (int v = 0; v < vertexSize; v++) {
+                ensure(channel, buffer, Long.BYTES);
+                buffer.putLong(offset);
+                offset += adjacency.degree(v);
+            }
+            ensure(channel, buffer, Long.BYTES);
+            buffer.putLong(offset);
+            long edgeSize = offset;
+
+            // 对端顶点数组
+            long targetsPos = position(channel, buffer);
+            for (int v = 0; v < vertexSize; v++) {
+                for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                    ensure(channel, buffer, Integer.BYTES);
+                    buffer.putInt(adjacency.edgeTarget(v, e));
+                }
+            }
+            flush(channel, buffer);
+
+            // 文件头最后写入，写入中途失败的文件魔数不正确，不会被误读
+            buffer.clear();
+            buffer.putInt(MAGIC);
+            buffer.putInt(FORMAT_VERSION);
+            buffer.putInt(directed ? 1 : 0);
+            buffer.putInt(keyType);
+            buffer.putLong(vertexSize);
+            buffer.putLong(edgeSize);
+            buffer.putLong(keysPos);
+            buffer.putLong(keysLen);
+            buffer.putLong(offsetsPos);
+            buffer.putLong(targetsPos);
+            buffer.flip();
+            channel.position(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * 读取file，directed与文件中记录的不一致时抛出IOException
+     */
+    static GraphFile read(Path file, boolean directed) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("not a graph file: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                    .order(OffHeapAdjacency.ORDER);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("not a graph file: " + file);
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("unsupported graph file version " + version);
+            }
+            boolean fileDirected = header.getInt() != 0;
+            if (fileDirected != directed) {
+                throw new IOException(file + " holds " + (fileDirected ? "a directed" : "an undirected") + " graph");
+            }
+            int keyType = header.getInt();
+            long vertexLen = header.getLong();
+            long edgeSize = header.getLong();
+            long keysPos = header.getLong();
+            long keysLen = header.getLong();
+            long offsetsPos = header.getLong();
+            long targetsPos = header.getLong();
+            if (!validLayout(channel.size(), vertexLen, edgeSize, keysPos, keysLen, offsetsPos, targetsPos)) {
+                throw new IOException("corrupt graph file: " + file);
+            }
+            int vertexSize = (int)vertexLen;
+
+            // 顶点表一次映射，长度超过2G字节时分块读取的必要性不大，直接拒绝
+            if (keysLen > Integer.MAX_VALUE) {
+                throw new IOException("vertex table too large: " + keysLen);
+            }
+            ByteBuffer keys = channel.map(FileChannel.MapMode.READ_ONLY, keysPos, keysLen)
+                    .order(OffHeapAdjacency.ORDER);
+            Object[] vertexes = new Object[vertexSize];
+            try {
+                decode(keys, keyType, vertexes);
+            } catch (BufferUnderflowException | NegativeArraySizeException e) {
+                // 顶点表比记录的顶点数量短，或者字符串的长度为负
+                throw new IOException("corrupt graph file: " + file, e);
+            }
+            return new GraphFile(vertexes,
+                    OffHeapAdjacency.map(channel, vertexSize, edgeSize, offsetsPos, targetsPos));
+        }
+    }
+
+    /**
+     * 文件头记录的各段须依次排列在文件范围内：文件头、顶点表、偏移数组、对端顶点数组，
+     * 顶点数量不超过Java数组的最大长度；比较时避免long溢出
+     */
+    private static boolean validLayout(long fileSize, long vertexSize, long edgeSize, long keysPos, long keysLen,
+            long offsetsPos, long targetsPos) {
+        if (vertexSize < 0 || vertexSize > Integer.MAX_VALUE - 8 || edgeSize < 0 || keysLen < 0) {
+            return false;
+        }
+        if (keysPos < HEADER_SIZE || keysPos > fileSize || keysLen > fileSize - keysPos) {
+            return false;
+        }
+        if (offsetsPos < keysPos + keysLen || offsetsPos > fileSize) {
+            return false;
+        }
+        long offsetsLen = (vertexSize + 1) * Long.BYTES;
+        if (targetsPos < offsetsPos || targetsPos - offsetsPos < offsetsLen || targetsPos > fileSize) {
+            return false;
+        }
+        return edgeSize <= (fileSize - targetsPos) / Integer.BYTES;
+    }
+
+    // 从顶点表中依次解码vertexes.length个顶点
+    private static void decode(ByteBuffer keys, int keyType, Object[] vertexes) throws IOException {
+        for (int i = 0; i < vertexes.length; i++) {
+            switch (keyType) {
+            case KEY_INT:
+                vertexes[i] = keys.getInt();
+                break;
+            case KEY_LONG:
+                vertexes[i] = keys.getLong();
+                break;
+            case KEY_CHAR:
+                vertexes[i] = keys.getChar();
+                break;
+            case KEY_STRING:
+                byte[] bytes = new byte[keys.getInt()];
+                keys.get(bytes);
+                vertexes[i] = new String(bytes, StandardCharsets.UTF_8);
+                break;
+            default:
+                throw new IOException("unknown vertex type " + keyType);
+            }
+        }
+    }
+
+    // 顶点全部是同一种支持的类型时返回该类型
+    private static int keyType(Object[] vertexes, int vertexSize) {
+        int type = KEY_INT;
+        for (int i = 0; i < vertexSize; i++) {
+            Object key = vertexes[i];
+            int t;
+            if (key instanceof Integer) {
+                t = KEY_INT;
+            } else if (key instanceof Long) {
+                t = KEY_LONG;
+            } else if (key instanceof Character) {
+                t = KEY_CHAR;
+            } else if (key instanceof String) {
+                t = KEY_STRING;
+            } else {
+                throw new IllegalArgumentException("unsupported vertex " + key);
+            }
+            if (i == 0) {
+                type = t;
+            } else if (t != type) {
+                throw new IllegalArgumentException("vertexes of mixed types");
+            }
+        }
+        return type;
+    }
+
+    // 缓冲区剩余空间不足size字节时先写出
+    private static void ensure(FileChannel channel, ByteBuffer buffer, int size) throws IOException {
+        if (buffer.remaining() < size) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // 已写出和尚在缓冲区中的字节数之和
+    private static long position(FileChannel channel, ByteBuffer buffer) throws IOException {
+        return channel.position() + buffer.position();
+    }
+}
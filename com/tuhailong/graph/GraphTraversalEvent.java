@@ -0,0 +1,38 @@
+package com.tuhailong.graph;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 图遍历的JFR事件，开启录制(如-XX:StartFlightRecording)后由Instrumentation提交
+ *
+ * @author tuhailong
+ */
+@Name("com.tuhailong.graph.Traversal")
+@Label("Graph Traversal")
+@Category("Graph")
+@Description("Cost of one graph traversal or component computation")
+@StackTrace(false)
+final class GraphTraversalEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Vertices Visited")
+    long verticesVisited;
+
+    @Label("Edges Scanned")
+    long edgesScanned;
+
+    @Label("Max Frontier")
+    @Description("Maximum DFS stack depth or BFS frontier size")
+    int maxFrontier;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
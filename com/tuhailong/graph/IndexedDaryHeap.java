@@ -0,0 +1,125 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 以double为键的索引d叉最小堆，元素是[0, capacity)中的整数，
+ * 全部存放在基本类型数组中，支持O(log_d n)的减小键值
+ * d取4：比二叉堆层数少一半，下沉时比较的4个子节点位于同一缓存行
+ *
+ * @author tuhailong
+ */
+final class IndexedDaryHeap {
+    private static final int D = 4;
+
+    // 堆数组，存放元素
+    private final int[] mHeap;
+    // 每个元素在堆数组中的位置，不在堆中为-1
+    private final int[] mPositions;
+    // 每个元素的键
+    private final double[] mKeys;
+    private int mSize;
+
+    IndexedDaryHeap(int capacity) {
+        mHeap = new int[capacity];
+        mPositions = new int[capacity];
+        mKeys = new double[capacity];
+        Arrays.fill(mPositions, -1);
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    boolean contains(int id) {
+        return mPositions[id] >= 0;
+    }
+
+    /**
+     * 元素不在堆中时以key插入；在堆中且key更小时减小它的键，否则不做任何事
+     */
+    void offer(int id, double key) {
+        int pos = mPositions[id];
+        if (pos < 0) {
+            pos = mSize++;
+        } else if (key >= mKeys[id]) {
+            return;
+        }
+        mKeys[id] = key;
+        siftUp(id, pos);
+    }
+
+    /**
+     * 移除并返回键最小的元素
+     */
+    int poll() {
+        int[] heap = mHeap;
+        int ret = heap[0];
+        mPositions[ret] = -1;
+        int last = heap[--mSize];
+        if (mSize > 0) {
+            siftDown(last, 0);
+        }
+        return ret;
+    }
+
+    /**
+     * 键最小的元素的键
+     */
+    double peekKey() {
+        return mKeys[mHeap[0]];
+    }
+
+    private void siftUp(int id, int pos) {
+        int[] heap = mHeap;
+        double key = mKeys[id];
+        while (pos > 0) {
+            int parent = (pos - 1) / D;
+            int p = heap[parent];
+            if (mKeys[p] <= key) {
+                break;
+            }
+            heap[pos] = p;
+            mPositions[p] = pos;
+            pos = parent;
+        }
+        heap[pos] = id;
+        mPositions[id] = pos;
+    }
+
+    private void siftDown(int id, int pos) {
+        int[] heap = mHeap;
+        double[] keys = mKeys;
+        double key = keys[id];
+        int size = mSize;
+        while (true) {
+            int first = pos * D + 1;
+            if (first >= size) {
+                break;
+            }
+            int end = Math.min(first + D, size);
+            int min = first;
+            double minKey = keys[heap[first]];
+            for (int c = first + 1; c < end; c++) {
+                double k = keys[heap[c]];
+                if (k < minKey) {
+                    min = c;
+                    minKey = k;
+                }
+            }
+            if (key <= minKey) {
+                break;
+            }
+            int child = heap[min];
+            heap[pos] = child;
+            mPositions[child] = pos;
+            pos = min;
+        }
+        heap[pos] = id;
+        mPositions[id] = pos;
+    }
+}
@@ -0,0 +1,97 @@
+package com.tuhailong.graph;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import jdk.jfr.EventType;
+
+/**
+ * 遍历和连通分量计算的可选埋点
+ * 没有注册监听器且没有开启JFR录制时begin返回null，每次操作只多一次volatile读，
+ * 遍历引擎中的计数都是局部变量，因此埋点可以一直保留在热点代码中
+ *
+ * @author tuhailong
+ */
+public final class Instrumentation {
+    private static final EventType EVENT_TYPE = EventType.getEventType(GraphTraversalEvent.class);
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static volatile TraversalListener sListener;
+
+    private Instrumentation() {
+    }
+
+    /**
+     * 注册指标监听器，传入null则取消
+     */
+    public static void setListener(TraversalListener listener) {
+        sListener = listener;
+    }
+
+    /**
+     * 开始一次操作的计量，埋点关闭时返回null
+     */
+    static Probe begin(String operation) {
+        TraversalListener listener = sListener;
+        if (listener == null && !EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        return new Probe(operation, listener);
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean)THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * 一次操作的计量
+     */
+    static final class Probe {
+        private final String mOperation;
+        private final TraversalListener mListener;
+        private final GraphTraversalEvent mEvent;
+        private final long mStartBytes;
+        private final long mStartNanos;
+
+        private Probe(String operation, TraversalListener listener) {
+            this.mOperation = operation;
+            this.mListener = listener;
+            this.mEvent = new GraphTraversalEvent();
+            this.mEvent.begin();
+            this.mStartBytes = allocatedBytes();
+            this.mStartNanos = System.nanoTime();
+        }
+
+        /**
+         * 结束计量，把traversal中累计的边数和最大深度一并上报
+         */
+        void end(long verticesVisited, Traversal traversal) {
+            end(verticesVisited, traversal.edgesScanned(), traversal.maxFrontier());
+        }
+
+        /**
+         * 结束计量并上报
+         */
+        void end(long verticesVisited, long edgesScanned, int maxFrontier) {
+            long nanos = System.nanoTime() - mStartNanos;
+            long endBytes = allocatedBytes();
+            long bytes = mStartBytes < 0 || endBytes < 0 ? -1 : endBytes - mStartBytes;
+            mEvent.end();
+            if (mEvent.shouldCommit()) {
+                mEvent.operation = mOperation;
+                mEvent.verticesVisited = verticesVisited;
+                mEvent.edgesScanned = edgesScanned;
+                mEvent.maxFrontier = maxFrontier;
+                mEvent.allocatedBytes = bytes;
+                mEvent.commit();
+            }
+            if (mListener != null) {
+                mListener.onTraversal(new TraversalMetrics(mOperation, verticesVisited,
+                        edgesScanned, maxFrontier, bytes, nanos));
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 顶点为int序号的有向图，邻接表表示
+ * 与DirectedGraph共用邻接表和遍历算法，但不保存顶点信息，没有字典查找和装箱
+ *
+ * @author tuhailong
+ */
+public class IntDirectedGraph extends IntGraph {
+    private Adjacency mAdjacency;
+    // 修改版本号
+    private long mVersion;
+    // 反向的邻接表，用于双向BFS，图被修改后重建
+    private final TransposeCache mInEdges = new TransposeCache();
+
+    /**
+     * 由边sources[i] -> targets[i]构造有vertexSize个顶点的有向图
+     */
+    public IntDirectedGraph(int vertexSize, int[] sources, int[] targets) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("sources.length " + sources.length
+                    + " != targets.length " + targets.length);
+        }
+        CompressedSparseRow.Builder builder = new CompressedSparseRow.Builder(vertexSize, sources.length);
+        for (int i = 0; i < sources.length; i++) {
+            builder.addEdge(sources[i], targets[i]);
+        }
+        mAdjacency = builder.build();
+    }
+
+    IntDirectedGraph(Adjacency adjacency) {
+        mAdjacency = adjacency;
+    }
+
+    @Override
+    Adjacency adjacency() {
+        return mAdjacency;
+    }
+
+    /**
+     * 添加一个没有边的顶点，返回它的序号
+     */
+    public int addVertex() {
+        int v = mutable().addVertex();
+        mVersion++;
+        return v;
+    }
+
+    /**
+     * 添加一条由顶点sp指向顶点ep的边，均摊O(1)
+     */
+    public void addEdge(int sp, int ep) {
+        mutable().addEdge(sp, ep);
+        mVersion++;
+    }
+
+    /**
+     * 删除一条由顶点sp指向顶点ep的边，返回是否删除成功，为O(sp的出度)
+     */
+    public boolean removeEdge(int sp, int ep) {
+        if (!mutable().removeEdge(sp, ep)) {
+            return false;
+        }
+        mVersion++;
+        return true;
+    }
+
+    /**
+     * 把邻接表重新压缩为只读的CSR，适合在批量修改结束后、大量遍历之前调用
+     */
+    public void compact() {
+        mAdjacency = CompressedSparseRow.copyOf(mAdjacency);
+    }
+
+    /**
+     * 修改版本号，每次添加顶点、添加或删除边后加1
+     */
+    public long version() {
+        return mVersion;
+    }
+
+    // 第一次修改时把只读的邻接表转换为可修改的形式
+    private DynamicAdjacency mutable() {
+        if (!(mAdjacency instanceof DynamicAdjacency)) {
+            mAdjacency = DynamicAdjacency.copyOf(mAdjacency);
+        }
+        return (DynamicAdjacency)mAdjacency;
+    }
+
+    /**
+     * 反向图：每条边反向，顶点序号不变
+     */
+    public IntDirectedGraph reverse() {
+        return new IntDirectedGraph(CompressedSparseRow.transpose(mAdjacency));
+    }
+
+    /**
+     * 判断有向图是否有环，只有指向DFS栈中顶点的边(回边)才构成环
+     */
+    public boolean hasCycle() {
+        return hasCycle(TraversalContext.local());
+    }
+
+    public boolean hasCycle(TraversalContext context) {
+        return Traversal.hasDirectedCycle(mAdjacency, context, "IntDirectedGraph.hasCycle");
+    }
+
+    /**
+     * 拓扑排序，有环时得到一个环
+     */
+    public TopologicalSort topologicalSort() {
+        return TopologicalSort.sort(mAdjacency);
+    }
+
+    /**
+     * 并行求拓扑序和每个顶点的层数，有环时得到一个环
+     */
+    public TopologicalSort topologicalLevels() {
+        return TopologicalSort.levels(mAdjacency, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 每个顶点所在强连通分量的id，分量按缩点图的逆拓扑序编号，
+     * id的范围为[0, 分量数量)
+     */
+    public int[] stronglyConnectedComponents() {
+        Instrumentation.Probe probe = Instrumentation.begin("IntDirectedGraph.stronglyConnectedComponents");
+        int vLen = mAdjacency.vertexSize();
+        int[] ids = new int[vLen];
+        Traversal traversal = new Traversal(mAdjacency);
+        traversal.stronglyConnected(ids);
+        if (probe != null) {
+            probe.end(vLen, traversal);
+        }
+        return ids;
+    }
+
+    /**
+     * 从顶点source到顶点target的一条最短路径(边数最少)，包括两个端点；不可达时返回空数组
+     * 从两端同时广度优先搜索，反向的邻接表在图被修改前一直复用
+     */
+    public int[] shortestPath(int source, int target) {
+        return shortestPath(source, target, TraversalContext.local());
+    }
+
+    /**
+     * 同shortestPath(source, target)，两侧的访问标记、父顶点和队列使用context，
+     * 时间只与搜索到的顶点和边成正比
+     */
+    public int[] shortestPath(int source, int target, TraversalContext context) {
+        checkVertex(source);
+        checkVertex(target);
+        return BidirectionalBfs.path(mAdjacency, inEdges(), source, target, context);
+    }
+
+    private Adjacency inEdges() {
+        return mInEdges.get(mAdjacency, mVersion);
+    }
+
+    public static void main(String[] args) {
+        // 顶点0..6对应DirectedGraph示例中的A..G
+        int[] sources = {0, 1, 1, 1, 2, 3, 4, 4, 5};
+        int[] targets = {1, 2, 4, 5, 4, 2, 1, 3, 6};
+        IntDirectedGraph graph = new IntDirectedGraph(7, sources, targets);
+        int[] dfs = graph.dfs();
+        System.out.println("dfs: " + Arrays.toString(dfs));
+        System.out.println("bfs: " + Arrays.toString(graph.bfs()));
+        System.out.println("dfs stream limit 3: " + Arrays.toString(graph.dfsStream().limit(3).toArray()));
+        System.out.println("scc: " + Arrays.toString(graph.stronglyConnectedComponents()));
+        System.out.println("cycle: " + Arrays.toString(graph.topologicalSort().cycle()));
+        System.out.println("path 0 -> 3: " + Arrays.toString(graph.shortestPath(0, 3)));
+        // 顶点信息只在输出时查表
+        VertexTable<Character> table = new VertexTable<>(new Character[] {'A', 'B', 'C', 'D', 'E', 'F', 'G'});
+        System.out.println("dfs vertexes: " + Arrays.toString(table.get(dfs)));
+        /**
+        dfs: [0, 1, 2, 4, 3, 5, 6]
+        bfs: [0, 1, 2, 4, 5, 3, 6]
+        dfs stream limit 3: [0, 1, 2]
+        scc: [3, 2, 2, 2, 2, 1, 0]
+        cycle: [1, 2, 4]
+        path 0 -> 3: [0, 1, 4, 3]
+        dfs vertexes: [A, B, C, E, D, F, G]
+         */
+    }
+}
@@ -0,0 +1,174 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * 顶点为稠密int序号[0, vertexSize())的图，不保存顶点信息，遍历结果直接是int[]或IntStream，
+ * 热路径上没有装箱，也不访问任何对象；需要顶点信息时用VertexTable作为独立的映射表
+ * 子类：IntDirectedGraph、IntUndirectedGraph(邻接表)和IntMatrixGraph(邻接矩阵)
+ *
+ * @author tuhailong
+ */
+public abstract class IntGraph {
+    IntGraph() {
+    }
+
+    /**
+     * 邻接关系的只读视图
+     */
+    abstract Adjacency adjacency();
+
+    /**
+     * 获取顶点数量
+     */
+    public int vertexSize() {
+        return adjacency().vertexSize();
+    }
+
+    /**
+     * 获取顶点v的出度(无向图为度)
+     */
+    public int degree(int v) {
+        checkVertex(v);
+        return adjacency().degree(v);
+    }
+
+    /**
+     * 获取顶点v的所有邻接顶点
+     */
+    public int[] adjacent(int v) {
+        checkVertex(v);
+        return adjacency().adjacent(v);
+    }
+
+    void checkVertex(int v) {
+        if (v < 0 || v >= vertexSize()) {
+            throw new IndexOutOfBoundsException("vertex " + v);
+        }
+    }
+
+    /**
+     * 深度优先搜索遍历图，返回按先序排列的顶点序号
+     */
+    public int[] dfs() {
+        return dfs(TraversalContext.local());
+    }
+
+    /**
+     * 用context中的访问标记和栈深度优先搜索遍历图，除结果外不分配内存
+     */
+    public int[] dfs(TraversalContext context) {
+        return Traversal.dfs(adjacency(), context, "IntGraph.dfs");
+    }
+
+    /**
+     * 广度优先搜索遍历图，返回按访问顺序排列的顶点序号
+     */
+    public int[] bfs() {
+        return bfs(TraversalContext.local());
+    }
+
+    /**
+     * 用context中的访问标记和队列广度优先搜索遍历图，除结果外不分配内存
+     */
+    public int[] bfs(TraversalContext context) {
+        return Traversal.bfs(adjacency(), context, "IntGraph.bfs");
+    }
+
+    /**
+     * 深度优先搜索遍历整个图，按先序把顶点序号依次交给visitor，
+     * visitor返回false时立即终止，返回是否遍历完所有顶点
+     */
+    public boolean dfs(VertexVisitor visitor) {
+        return dfs(visitor, new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组遍历，visitor中不能再用同一个context遍历
+     */
+    public boolean dfs(VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.DfsIterator(adjacency(), -1, context), visitor);
+    }
+
+    /**
+     * 从序号为source的顶点开始深度优先搜索，只访问从它可达的顶点
+     */
+    public boolean dfs(int source, VertexVisitor visitor) {
+        return dfs(source, visitor, new TraversalContext());
+    }
+
+    public boolean dfs(int source, VertexVisitor visitor, TraversalContext context) {
+        checkVertex(source);
+        return Traversal.forEach(new Traversal.DfsIterator(adjacency(), source, context), visitor);
+    }
+
+    /**
+     * 广度优先搜索遍历整个图，按访问顺序把顶点序号依次交给visitor，
+     * visitor返回false时立即终止，返回是否遍历完所有顶点
+     */
+    public boolean bfs(VertexVisitor visitor) {
+        return bfs(visitor, new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组遍历，visitor中不能再用同一个context遍历
+     */
+    public boolean bfs(VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.BfsIterator(adjacency(), -1, context), visitor);
+    }
+
+    /**
+     * 从序号为source的顶点开始广度优先搜索，只访问从它可达的顶点
+     */
+    public boolean bfs(int source, VertexVisitor visitor) {
+        return bfs(source, visitor, new TraversalContext());
+    }
+
+    public boolean bfs(int source, VertexVisitor visitor, TraversalContext context) {
+        checkVertex(source);
+        return Traversal.forEach(new Traversal.BfsIterator(adjacency(), source, context), visitor);
+    }
+
+    /**
+     * 按深度优先的先序惰性产生顶点序号的流，只遍历被消费的部分
+     */
+    public IntStream dfsStream() {
+        return dfsStream(new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组产生流，流被消费完之前不能再用同一个context遍历
+     */
+    public IntStream dfsStream(TraversalContext context) {
+        return Traversal.stream(new Traversal.DfsIterator(adjacency(), -1, context), vertexSize());
+    }
+
+    /**
+     * 按广度优先的访问顺序惰性产生顶点序号的流，只遍历被消费的部分
+     */
+    public IntStream bfsStream() {
+        return bfsStream(new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组产生流，流被消费完之前不能再用同一个context遍历
+     */
+    public IntStream bfsStream(TraversalContext context) {
+        return Traversal.stream(new Traversal.BfsIterator(adjacency(), -1, context), vertexSize());
+    }
+
+    /**
+     * 从序号为source的顶点可达的所有顶点序号(包括自己)，按广度优先的访问顺序排列
+     */
+    public int[] reachable(int source) {
+        return reachable(source, TraversalContext.local());
+    }
+
+    public int[] reachable(int source, TraversalContext context) {
+        checkVertex(source);
+        Traversal traversal = new Traversal(adjacency(), context);
+        int[] queue = traversal.queue();
+        return Arrays.copyOf(queue, traversal.bfs(source, queue, 0));
+    }
+}
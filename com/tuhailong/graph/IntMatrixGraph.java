@@ -0,0 +1,120 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 顶点为int序号的图，按位压缩的邻接矩阵表示，顶点数量在构造时确定
+ * 无向图的每条边同时设置矩阵中对称的两位
+ *
+ * @author tuhailong
+ */
+public class IntMatrixGraph extends IntGraph {
+    private final BitMatrix mMatrix;
+    private final boolean mDirected;
+
+    /**
+     * 构造有vertexSize个顶点、没有边的图
+     */
+    public IntMatrixGraph(int vertexSize, boolean directed) {
+        mMatrix = new BitMatrix(vertexSize);
+        mDirected = directed;
+    }
+
+    /**
+     * 由边sources[i] -> targets[i]构造有vertexSize个顶点的图，directed为false时边是无向的
+     */
+    public IntMatrixGraph(int vertexSize, int[] sources, int[] targets, boolean directed) {
+        this(vertexSize, directed);
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("sources.length " + sources.length
+                    + " != targets.length " + targets.length);
+        }
+        for (int i = 0; i < sources.length; i++) {
+            addEdge(sources[i], targets[i]);
+        }
+    }
+
+    @Override
+    Adjacency adjacency() {
+        return mMatrix;
+    }
+
+    public boolean isDirected() {
+        return mDirected;
+    }
+
+    /**
+     * 是否有由顶点sp指向顶点ep的边，O(1)
+     */
+    public boolean hasEdge(int sp, int ep) {
+        checkVertex(sp);
+        checkVertex(ep);
+        return mMatrix.get(sp, ep);
+    }
+
+    /**
+     * 添加一条由顶点sp指向顶点ep的边，O(1)，边已存在时不变
+     */
+    public void addEdge(int sp, int ep) {
+        checkVertex(sp);
+        checkVertex(ep);
+        mMatrix.set(sp, ep);
+        if (!mDirected) {
+            mMatrix.set(ep, sp);
+        }
+    }
+
+    /**
+     * 删除一条由顶点sp指向顶点ep的边，返回是否删除成功，O(1)
+     */
+    public boolean removeEdge(int sp, int ep) {
+        checkVertex(sp);
+        checkVertex(ep);
+        if (!mMatrix.get(sp, ep)) {
+            return false;
+        }
+        mMatrix.clear(sp, ep);
+        if (!mDirected) {
+            mMatrix.clear(ep, sp);
+        }
+        return true;
+    }
+
+    /**
+     * 用context中的访问标记位图和队列广度优先搜索遍历图，
+     * 一次处理邻接矩阵中一行的64位，除结果外不分配内存
+     */
+    @Override
+    public int[] bfs(TraversalContext context) {
+        return Traversal.bfs(mMatrix, context, "IntMatrixGraph.bfs");
+    }
+
+    /**
+     * 传递闭包，用于大量的可达性查询，代替每次查询时的一次遍历
+     */
+    public ReachabilityMatrix transitiveClosure() {
+        return transitiveClosure(ForkJoinPool.commonPool());
+    }
+
+    public ReachabilityMatrix transitiveClosure(ForkJoinPool pool) {
+        return ReachabilityMatrix.closure(mMatrix, pool);
+    }
+
+    public static void main(String[] args) {
+        // 顶点0..6对应MatrixDirectedGraph示例中的A..G
+        int[] sources = {0, 1, 1, 1, 2, 3, 4, 4, 5};
+        int[] targets = {1, 2, 4, 5, 4, 2, 1, 3, 6};
+        IntMatrixGraph graph = new IntMatrixGraph(7, sources, targets, true);
+        System.out.println("dfs: " + Arrays.toString(graph.dfs()));
+        System.out.println("bfs: " + Arrays.toString(graph.bfs()));
+        System.out.println("reachable from 3: " + Arrays.toString(graph.reachable(3)));
+        System.out.println("closure 6 -> 3: " + graph.transitiveClosure().reachable(6, 3));
+        /**
+        dfs: [0, 1, 2, 4, 3, 5, 6]
+        bfs: [0, 1, 2, 4, 5, 3, 6]
+        reachable from 3: [3, 2, 4, 1, 5, 6]
+        closure 6 -> 3: false
+         */
+    }
+}
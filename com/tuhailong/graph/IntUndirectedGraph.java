@@ -0,0 +1,163 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 顶点为int序号的无向图，邻接表表示，每条无向边存为两条有向边
+ * 与UndirectedGraph共用邻接表和遍历算法，但不保存顶点信息，没有字典查找和装箱
+ *
+ * @author tuhailong
+ */
+public class IntUndirectedGraph extends IntGraph {
+    private Adjacency mAdjacency;
+    // 修改版本号
+    private long mVersion;
+
+    /**
+     * 由边sources[i] - targets[i]构造有vertexSize个顶点的无向图
+     */
+    public IntUndirectedGraph(int vertexSize, int[] sources, int[] targets) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("sources.length " + sources.length
+                    + " != targets.length " + targets.length);
+        }
+        CompressedSparseRow.Builder builder = new CompressedSparseRow.Builder(vertexSize, sources.length * 2);
+        for (int i = 0; i < sources.length; i++) {
+            builder.addEdge(sources[i], targets[i]);
+            builder.addEdge(targets[i], sources[i]);
+        }
+        mAdjacency = builder.build();
+    }
+
+    @Override
+    Adjacency adjacency() {
+        return mAdjacency;
+    }
+
+    /**
+     * 添加一个没有边的顶点，返回它的序号
+     */
+    public int addVertex() {
+        int v = mutable().addVertex();
+        mVersion++;
+        return v;
+    }
+
+    /**
+     * 添加一条连接顶点sp和顶点ep的边，均摊O(1)
+     */
+    public void addEdge(int sp, int ep) {
+        DynamicAdjacency adjacency = mutable();
+        adjacency.addEdge(sp, ep);
+        adjacency.addEdge(ep, sp);
+        mVersion++;
+    }
+
+    /**
+     * 删除一条连接顶点sp和顶点ep的边，返回是否删除成功，为O(两个顶点的度)
+     */
+    public boolean removeEdge(int sp, int ep) {
+        DynamicAdjacency adjacency = mutable();
+        if (!adjacency.removeEdge(sp, ep)) {
+            return false;
+        }
+        adjacency.removeEdge(ep, sp);
+        mVersion++;
+        return true;
+    }
+
+    /**
+     * 把邻接表重新压缩为只读的CSR，适合在批量修改结束后、大量遍历之前调用
+     */
+    public void compact() {
+        mAdjacency = CompressedSparseRow.copyOf(mAdjacency);
+    }
+
+    /**
+     * 修改版本号，每次添加顶点、添加或删除边后加1
+     */
+    public long version() {
+        return mVersion;
+    }
+
+    // 第一次修改时把只读的邻接表转换为可修改的形式
+    private DynamicAdjacency mutable() {
+        if (!(mAdjacency instanceof DynamicAdjacency)) {
+            mAdjacency = DynamicAdjacency.copyOf(mAdjacency);
+        }
+        return (DynamicAdjacency)mAdjacency;
+    }
+
+    /**
+     * 判断无向图是否有环
+     */
+    public boolean hasCycle() {
+        return hasCycle(TraversalContext.local());
+    }
+
+    public boolean hasCycle(TraversalContext context) {
+        return Traversal.hasUndirectedCycle(mAdjacency, context, "IntUndirectedGraph.hasCycle");
+    }
+
+    /**
+     * 每个顶点所在连通分量的id，按连通分量中最小的顶点序号从小到大编号，
+     * id的范围为[0, 分量数量)
+     */
+    public int[] connectedComponents() {
+        Instrumentation.Probe probe = Instrumentation.begin("IntUndirectedGraph.connectedComponents");
+        Adjacency adjacency = mAdjacency;
+        int vLen = adjacency.vertexSize();
+        UnionFind sets = new UnionFind(vLen);
+        long edges = 0;
+        for (int v = 0; v < vLen; v++) {
+            for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                int w = adjacency.edgeTarget(v, e);
+                // 每条无向边存为两条有向边，只需合并一次
+                if (v < w) {
+                    sets.union(v, w);
+                }
+                edges++;
+            }
+        }
+        if (probe != null) {
+            probe.end(vLen, edges, 0);
+        }
+        return sets.labels(new int[vLen]);
+    }
+
+    /**
+     * 从顶点source到顶点target的一条最短路径(边数最少)，包括两个端点；不可达时返回空数组
+     */
+    public int[] shortestPath(int source, int target) {
+        return shortestPath(source, target, TraversalContext.local());
+    }
+
+    /**
+     * 同shortestPath(source, target)，两侧的访问标记、父顶点和队列使用context，
+     * 时间只与搜索到的顶点和边成正比
+     */
+    public int[] shortestPath(int source, int target, TraversalContext context) {
+        checkVertex(source);
+        checkVertex(target);
+        return BidirectionalBfs.path(mAdjacency, mAdjacency, source, target, context);
+    }
+
+    public static void main(String[] args) {
+        // 顶点0..6对应UndirectedGraph示例中的A..G
+        int[] sources = {0, 0, 0, 1, 2, 4, 5};
+        int[] targets = {2, 3, 5, 2, 3, 6, 6};
+        IntUndirectedGraph graph = new IntUndirectedGraph(7, sources, targets);
+        System.out.println("dfs: " + Arrays.toString(graph.dfs()));
+        System.out.println("bfs: " + Arrays.toString(graph.bfs()));
+        System.out.println("components: " + Arrays.toString(graph.connectedComponents()));
+        System.out.println("has cycle: " + graph.hasCycle());
+        System.out.println("path 5 -> 1: " + Arrays.toString(graph.shortestPath(5, 1)));
+        /**
+        dfs: [0, 2, 1, 3, 5, 6, 4]
+        bfs: [0, 2, 3, 5, 1, 6, 4]
+        components: [0, 0, 0, 0, 0, 0, 0]
+        has cycle: true
+        path 5 -> 1: [5, 0, 2, 1]
+         */
+    }
+}
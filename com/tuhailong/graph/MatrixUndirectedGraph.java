@@ -1,6 +1,8 @@
 package com.tuhailong.graph;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * 无向图的邻接矩阵表示
@@ -10,8 +12,10 @@ import java.util.ArrayList;
 public class MatrixUndirectedGraph<T> {
     // 顶点数组
     private T[] mVertexes;
-    // 邻接矩阵
-    private int[][] mMatrix;
+    // 顶点信息到顶点序号的字典
+    private VertexDictionary<T> mDictionary;
+    // 邻接矩阵，按位压缩存储
+    private BitMatrix mMatrix;
 
     @SuppressWarnings("unchecked")
     MatrixUndirectedGraph(T[] vexs, T[][] edges) {
@@ -25,9 +29,10 @@ public class MatrixUndirectedGraph<T> {
         for (int i = 0; i < vLen; i++) {
             mVertexes[i] = vexs[i];
         }
+        mDictionary = VertexDictionary.of(vexs);
 
         // 边赋初始值
-        mMatrix = new int[vLen][vLen];
+        mMatrix = new BitMatrix(vLen);
         for (int i = 0; i < eLen; i++) {
             // 边edges[i]的起始顶点
             int sp = index(edges[i][0]);
@@ -36,166 +41,237 @@ public class MatrixUndirectedGraph<T> {
             if (sp == -1 || ep == -1) {
                 continue;
             }
-            // 在无向图中，mMatrix[sp][ep]==1表示顶点mVertexes[sp]与顶点mVertexes[ep]是连通的
-            mMatrix[sp][ep] = 1;
-            mMatrix[ep][sp] = 1;
+            // 在无向图中，mMatrix第sp行第ep位为1表示顶点mVertexes[sp]与顶点mVertexes[ep]是连通的
+            mMatrix.set(sp, ep);
+            mMatrix.set(ep, sp);
         }
     }
 
+    private MatrixUndirectedGraph(T[] vertexes, VertexDictionary<T> dictionary, BitMatrix matrix) {
+        mVertexes = vertexes;
+        mDictionary = dictionary;
+        mMatrix = matrix;
+    }
+
     /**
      * 返回item在mVertexes中的位置
      */
-    private int index(T item) {
-        for (int i = mVertexes.length - 1; i >= 0; i--) {
-            if (item == mVertexes[i]) {
-                return i;
-            }
-        }
-        return -1;
+    int index(T item) {
+        return mDictionary.index(item);
     }
 
     /**
-     * 返回顶点v的第一个邻接顶点的索引，失败则返回-1
+     * 邻接矩阵的只读视图
      */
-    private int firstVertex(int v) {
-        int vLen = mVertexes.length;
-        if (v < 0 || v > vLen - 1) {
-            return -1;
-        }
-        for (int i = 0; i < vLen; i++) {
-            if (mMatrix[v][i] == 1) {
-                return i;
-            }
-        }
-        return -1;
+    BitMatrix matrix() {
+        return mMatrix;
     }
 
     /**
-     * 返回顶点v相对于w的下一个邻接顶点的索引，失败则返回-1
+     * 深度优先搜索遍历图
      */
-    private int nextVertex(int v, int w) {
-        int vLen = mVertexes.length;
-        if (v < 0 || v > vLen - 1) {
-            return -1;
-        }
-        if (w < 0 || w > vLen - 1) {
-            return -1;
-        }
-        for (int i = w + 1; i < vLen; i++) {
-            if (mMatrix[v][i] == 1) {
-                return i;
-            }
-        }
-        return -1;
+    public T[] dfs() {
+        return dfs(TraversalContext.local());
     }
 
     /**
-     * 深度优先搜索遍历图的递归实现
+     * 用context中的访问标记和栈深度优先搜索遍历图，除结果外不分配内存
      */
-    private void dfs(boolean[] visited, int i, ArrayList<T> list) {
-        visited[i] = true;
-        list.add(mVertexes[i]);
-        // 遍历该顶点的所有邻接顶点:若是没有访问过,那么继续往下走
-        for (int w = firstVertex(i); w >= 0; w = nextVertex(i, w)) {
-            if (!visited[w]) {
-                dfs(visited, w, list);
-            }
-        }
+    public T[] dfs(TraversalContext context) {
+        return Traversal.vertexes(mVertexes, Traversal.dfs(mMatrix, context, "MatrixUndirectedGraph.dfs"));
     }
 
     /**
-     * 深度优先搜索遍历图
+     * 广度优先搜索遍历图
      */
-    @SuppressWarnings("unchecked")
-    public T[] dfs() {
-        ArrayList<T> list = new ArrayList<>();
+    public T[] bfs() {
+        return bfs(TraversalContext.local());
+    }
 
-        int vLen = mVertexes.length;
-        boolean[] visited = new boolean[vLen];
-        for (int i = 0; i < vLen; i++) {
-            if (!visited[i]) {
-                dfs(visited, i, list);
-            }
-        }
+    /**
+     * 用context中的访问标记和队列广度优先搜索遍历图，除结果外不分配内存
+     */
+    public T[] bfs(TraversalContext context) {
+        return Traversal.vertexes(mVertexes, Traversal.bfs(mMatrix, context, "MatrixUndirectedGraph.bfs"));
+    }
 
-        System.out.println("DFS: " + list.toString());
-        return (T[])list.toArray();
+    /**
+     * 深度优先搜索遍历整个图，按先序把顶点序号依次交给visitor，
+     * visitor返回false时立即终止，返回是否遍历完所有顶点
+     */
+    public boolean dfs(VertexVisitor visitor) {
+        return dfs(visitor, new TraversalContext());
     }
 
     /**
-     * 广度优先搜索遍历图
+     * 用context中的辅助数组遍历，visitor中不能再用同一个context遍历
      */
-    @SuppressWarnings("unchecked")
-    public T[] bfs() {
-        ArrayList<T> list = new ArrayList<>();
+    public boolean dfs(VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.DfsIterator(mMatrix, -1, context), visitor);
+    }
 
-        int vLen = mVertexes.length;
-        int head = 0;
-        int rear = 0;
-        // 辅组队列
-        int[] queue = new int[vLen];
-        // 顶点访问标记
-        boolean[] visited = new boolean[vLen];
+    /**
+     * 从顶点数组中序号为source的顶点开始深度优先搜索，只访问从它可达的顶点
+     */
+    public boolean dfs(int source, VertexVisitor visitor) {
+        return dfs(source, visitor, new TraversalContext());
+    }
 
-        for (int i = 0; i < vLen; i++) {
-            if (!visited[i]) {
-                visited[i] = true;
-                list.add(mVertexes[i]);
-                // 入列
-                queue[rear++] = i;
-            }
+    public boolean dfs(int source, VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.DfsIterator(mMatrix, source, context), visitor);
+    }
 
-            while (head != rear) {
-                // 出列
-                int j = queue[head++];
-                //k为访问的邻接顶点
-                for (int k = firstVertex(j); k >= 0; k = nextVertex(j, k)) {
-                    if (!visited[k]) {
-                        visited[k] = true;
-                        list.add(mVertexes[k]);
-                        // 入列
-                        queue[rear++] = k;
-                    }
-                }
-            }
-        }
+    /**
+     * 广度优先搜索遍历整个图，按访问顺序把顶点序号依次交给visitor，
+     * visitor返回false时立即终止，返回是否遍历完所有顶点
+     */
+    public boolean bfs(VertexVisitor visitor) {
+        return bfs(visitor, new TraversalContext());
+    }
 
-        System.out.println("BFS: " + list.toString());
-        return (T[])list.toArray();
+    /**
+     * 用context中的辅助数组遍历，visitor中不能再用同一个context遍历
+     */
+    public boolean bfs(VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.BfsIterator(mMatrix, -1, context), visitor);
     }
 
+    /**
+     * 从顶点数组中序号为source的顶点开始广度优先搜索，只访问从它可达的顶点
+     */
+    public boolean bfs(int source, VertexVisitor visitor) {
+        return bfs(source, visitor, new TraversalContext());
+    }
+
+    public boolean bfs(int source, VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.BfsIterator(mMatrix, source, context), visitor);
+    }
+
+    /**
+     * 按深度优先的先序惰性产生顶点序号的流，只遍历被消费的部分
+     */
+    public IntStream dfsStream() {
+        return dfsStream(new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组产生流，流被消费完之前不能再用同一个context遍历
+     */
+    public IntStream dfsStream(TraversalContext context) {
+        return Traversal.stream(new Traversal.DfsIterator(mMatrix, -1, context), mVertexes.length);
+    }
+
+    /**
+     * 按广度优先的访问顺序惰性产生顶点序号的流，只遍历被消费的部分
+     */
+    public IntStream bfsStream() {
+        return bfsStream(new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组产生流，流被消费完之前不能再用同一个context遍历
+     */
+    public IntStream bfsStream(TraversalContext context) {
+        return Traversal.stream(new Traversal.BfsIterator(mMatrix, -1, context), mVertexes.length);
+    }
+
+    /**
+     * 判断无向图是否是连通图：从顶点0开始按层扩展，
+     * 每层把前沿顶点的行位图按位或到一起，再去掉已到达的顶点
+     */
     public boolean isConnected() {
-        int count = 0;
+        return isConnected(TraversalContext.local());
+    }
 
+    /**
+     * 用context中的位图判断是否是连通图，不分配内存
+     */
+    public boolean isConnected(TraversalContext context) {
+        Instrumentation.Probe probe = Instrumentation.begin("MatrixUndirectedGraph.isConnected");
         int vLen = mVertexes.length;
-        // 顶点访问标记
-        boolean[] visited = new boolean[vLen];
-        // 辅组队列
-        int[] queue = new int[vLen];
-        int head = 0;
-        int tail = 0;
-
-        // 选择顶点数组的首元素位置入列
-        queue[tail++] = 0;
-
-        while (head != tail) {
-            // 出列
-            int i = queue[head++];
-            visited[i] = true;
-            count += 1;
-            for (int j = firstVertex(i); j >= 0; j = nextVertex(i, j)) {
-                if (!visited[j]) {
-                    visited[j] = true;
-                    // 顶点数组j位置入列
-                    queue[tail++] = j;
-                }
+        // 按位或过的行数和最大前沿，仅在埋点开启时统计
+        long rows = 0;
+        int maxFrontier = 0;
+        int words = BitMatrix.wordsFor(vLen);
+        // 已到达的顶点
+        long[] reached = context.bits(0, words);
+        // 当前层的前沿顶点
+        long[] frontier = context.bits(1, words);
+        // 下一层的前沿顶点
+        long[] next = context.bits(2, words);
+
+        if (vLen > 0) {
+            reached[0] = 1L;
+            frontier[0] = 1L;
+        }
+        while (!BitMatrix.isEmpty(frontier)) {
+            Arrays.fill(next, 0L);
+            if (probe != null) {
+                int frontierSize = BitMatrix.cardinality(frontier);
+                rows += frontierSize;
+                maxFrontier = Math.max(maxFrontier, frontierSize);
+            }
+            for (int i = BitMatrix.nextSetBit(frontier, 0); i >= 0; i = BitMatrix.nextSetBit(frontier, i + 1)) {
+                BitMatrix.or(next, mMatrix.row(i));
             }
+            BitMatrix.andNot(next, reached);
+            BitMatrix.or(reached, next);
+            long[] tmp = frontier;
+            frontier = next;
+            next = tmp;
+        }
+        int count = BitMatrix.cardinality(reached);
+        if (probe != null) {
+            probe.end(count, rows * vLen, maxFrontier);
         }
 
-        System.out.println("isConnected=" + (count == vLen));
         return count == vLen;
     }
 
+    /**
+     * 传递闭包，用于大量的可达性查询，代替每次查询时的一次遍历
+     */
+    public ReachabilityMatrix transitiveClosure() {
+        return transitiveClosure(ForkJoinPool.commonPool());
+    }
+
+    public ReachabilityMatrix transitiveClosure(ForkJoinPool pool) {
+        return ReachabilityMatrix.closure(mMatrix, pool);
+    }
+
+    /**
+     * 逆Cuthill-McKee顺序，使邻接矩阵的非零元素集中在对角线附近(带宽小)
+     */
+    public VertexOrdering reverseCuthillMcKee() {
+        return VertexOrdering.reverseCuthillMcKee(mMatrix, null);
+    }
+
+    /**
+     * 按度从大到小的顺序
+     */
+    public VertexOrdering degreeOrdering() {
+        return VertexOrdering.degreeDescending(mMatrix, null);
+    }
+
+    /**
+     * 从度最大的顶点开始的广度优先顺序
+     */
+    public VertexOrdering bfsOrdering() {
+        return VertexOrdering.bfs(mMatrix, null);
+    }
+
+    /**
+     * 按ordering重新编号得到的新图，原图不变：新图中序号为i的顶点是原图中序号为ordering.original(i)的顶点
+     */
+    public MatrixUndirectedGraph<T> reorder(VertexOrdering ordering) {
+        if (ordering.size() != mVertexes.length) {
+            throw new IllegalArgumentException("ordering size " + ordering.size()
+                    + " != vertex size " + mVertexes.length);
+        }
+        T[] vertexes = ordering.relabel(mVertexes);
+        return new MatrixUndirectedGraph<T>(vertexes, VertexDictionary.of(vertexes), ordering.relabel(mMatrix));
+    }
+
     public void dump() {
         System.out.printf("Martix Undirected Graph:\n");
         System.out.print("    ");
@@ -207,7 +283,7 @@ public class MatrixUndirectedGraph<T> {
         for (int i = 0; i < mVertexes.length; i++) {
             System.out.printf("%c | ", mVertexes[i]);
             for (int j = 0; j < mVertexes.length; j++)
-                System.out.printf("%d ", mMatrix[i][j]);
+                System.out.printf("%d ", mMatrix.get(i, j) ? 1 : 0);
             System.out.printf("\n");
         }
     }
@@ -219,9 +295,13 @@ public class MatrixUndirectedGraph<T> {
 
         MatrixUndirectedGraph<Character> graph = new MatrixUndirectedGraph<Character>(vexs, edges);
         graph.dump();
-        graph.dfs();
-        graph.bfs();
-        graph.isConnected();
+        System.out.println("DFS: " + Arrays.toString(graph.dfs()));
+        System.out.println("BFS: " + Arrays.toString(graph.bfs()));
+        System.out.println("isConnected=" + graph.isConnected());
+        // 逆Cuthill-McKee重新编号，邻接矩阵的1集中到对角线附近
+        VertexOrdering ordering = graph.reverseCuthillMcKee();
+        System.out.println("bandwidth " + ordering.originalBandwidth() + " -> " + ordering.bandwidth());
+        graph.reorder(ordering).dump();
         /**
         Martix Undirected Graph:
             A B C D E F G 
@@ -236,6 +316,17 @@ public class MatrixUndirectedGraph<T> {
         DFS: [A, C, B, D, F, G, E]
         BFS: [A, C, D, F, B, G, E]
         isConnected=true
+        bandwidth 5 -> 2
+        Martix Undirected Graph:
+            B C D A F G E 
+        ------------------
+        B | 0 1 0 0 0 0 0 
+        C | 1 0 1 1 0 0 0 
+        D | 0 1 0 1 0 0 0 
+        A | 0 1 1 0 1 0 0 
+        F | 0 0 0 1 0 1 0 
+        G | 0 0 0 0 1 0 1 
+        E | 0 0 0 0 0 1 0 
         */
     }
 }
\ No newline at end of file
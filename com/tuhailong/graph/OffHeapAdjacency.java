@@ -0,0 +1,303 @@
+package com.tuhailong.graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * 存放在堆外的CSR：偏移数组为64位，对端顶点数组为32位，二者都分成若干块存放在ByteBuffer中，
+ * 因此边的数量不受Java数组长度的限制，也不占用Java堆
+ * 顶点v的邻接顶点为targets[offsets[v], offsets[v + 1])，游标是边在这一段中的位置，
+ * 构建完成后不可修改
+ * 缓冲区来自内存映射文件(GraphFile)或直接缓冲区(copyOf、transpose、Builder)；
+ * 直接缓冲区的总量受-XX:MaxDirectMemorySize限制，在对象被回收后释放
+ *
+ * @author tuhailong
+ */
+final class OffHeapAdjacency implements Adjacency {
+    // 每块最多存放2^CHUNK_SHIFT个元素，64位的块不超过1G字节，可以一次映射
+    static final int CHUNK_SHIFT = 27;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final long CHUNK_MASK = CHUNK_SIZE - 1;
+    // 文件和缓冲区统一采用小端字节序
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final int mVertexSize;
+    private final long mEdgeSize;
+    // 偏移数组，共vertexSize + 1个元素
+    private final LongBuffer[] mOffsets;
+    // 对端顶点数组，共edgeSize个元素
+    private final IntBuffer[] mTargets;
+
+    OffHeapAdjacency(int vertexSize, long edgeSize, LongBuffer[] offsets, IntBuffer[] targets) {
+        this.mVertexSize = vertexSize;
+        this.mEdgeSize = edgeSize;
+        this.mOffsets = offsets;
+        this.mTargets = targets;
+    }
+
+    /**
+     * 只读地映射文件中从offsetsPos开始的偏移数组和从targetsPos开始的对端顶点数组，
+     * 映射建立后即可关闭channel
+     */
+    static OffHeapAdjacency map(FileChannel channel, int vertexSize, long edgeSize,
+            long offsetsPos, long targetsPos) throws IOException {
+        long offsetLen = vertexSize + 1L;
+        LongBuffer[] offsets = new LongBuffer[chunks(offsetLen)];
+        for (int i = 0; i < offsets.length; i++) {
+            long from = (long)i << CHUNK_SHIFT;
+            long len = Math.min(CHUNK_SIZE, offsetLen - from);
+            offsets[i] = channel.map(FileChannel.MapMode.READ_ONLY, offsetsPos + from * Long.BYTES,
+                    len * Long.BYTES).order(ORDER).asLongBuffer();
+        }
+        IntBuffer[] targets = new IntBuffer[chunks(edgeSize)];
+        for (int i = 0; i < targets.length; i++) {
+            long from = (long)i << CHUNK_SHIFT;
+            long len = Math.min(CHUNK_SIZE, edgeSize - from);
+            targets[i] = channel.map(FileChannel.MapMode.READ_ONLY, targetsPos + from * Integer.BYTES,
+                    len * Integer.BYTES).order(ORDER).asIntBuffer();
+        }
+        return new OffHeapAdjacency(vertexSize, edgeSize, offsets, targets);
+    }
+
+    /**
+     * 存放len个元素需要的块数
+     */
+    static int chunks(long len) {
+        return (int)((len + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * 分配能存放len个long的直接缓冲区
+     */
+    static LongBuffer[] allocateLongs(long len) {
+        LongBuffer[] ret = new LongBuffer[chunks(len)];
+        for (int i = 0; i < ret.length; i++) {
+            long size = Math.min(CHUNK_SIZE, len - ((long)i << CHUNK_SHIFT));
+            ret[i] = ByteBuffer.allocateDirect((int)size * Long.BYTES).order(ORDER).asLongBuffer();
+        }
+        return ret;
+    }
+
+    /**
+     * 分配能存放len个int的直接缓冲区
+     */
+    static IntBuffer[] allocateInts(long len) {
+        IntBuffer[] ret = new IntBuffer[chunks(len)];
+        for (int i = 0; i < ret.length; i++) {
+            long size = Math.min(CHUNK_SIZE, len - ((long)i << CHUNK_SHIFT));
+            ret[i] = ByteBuffer.allocateDirect((int)size * Integer.BYTES).order(ORDER).asIntBuffer();
+        }
+        return ret;
+    }
+
+    static long get(LongBuffer[] chunks, long i) {
+        return chunks[(int)(i >>> CHUNK_SHIFT)].get((int)(i & CHUNK_MASK));
+    }
+
+    static void put(LongBuffer[] chunks, long i, long value) {
+        chunks[(int)(i >>> CHUNK_SHIFT)].put((int)(i & CHUNK_MASK), value);
+    }
+
+    static int get(IntBuffer[] chunks, long i) {
+        return chunks[(int)(i >>> CHUNK_SHIFT)].get((int)(i & CHUNK_MASK));
+    }
+
+    static void put(IntBuffer[] chunks, long i, int value) {
+        chunks[(int)(i >>> CHUNK_SHIFT)].put((int)(i & CHUNK_MASK), value);
+    }
+
+    /**
+     * 把任意形式的邻接关系复制到堆外，邻接顶点的顺序不变
+     */
+    static OffHeapAdjacency copyOf(Adjacency adjacency) {
+        if (adjacency instanceof OffHeapAdjacency) {
+            return (OffHeapAdjacency)adjacency;
+        }
+        int vLen = adjacency.vertexSize();
+        LongBuffer[] offsets = allocateLongs(vLen + 1L);
+        long offset = 0;
+        for (int v = 0; v < vLen; v++) {
+            put(offsets, v, offset);
+            offset += adjacency.degree(v);
+        }
+        put(offsets, vLen, offset);
+        IntBuffer[] targets = allocateInts(offset);
+        long pos = 0;
+        for (int v = 0; v < vLen; v++) {
+            for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                put(targets, pos++, adjacency.edgeTarget(v, e));
+            }
+        }
+        return new OffHeapAdjacency(vLen, offset, offsets, targets);
+    }
+
+    /**
+     * 获取adjacency所有边反向后的堆外CSR，每个顶点的邻接顶点按源顶点序号升序排列，
+     * 与CompressedSparseRow.transpose的结果相同，但边的数量可以超过2^31
+     */
+    static OffHeapAdjacency transpose(Adjacency adjacency) {
+        int vLen = adjacency.vertexSize();
+        // 先在堆上统计入度并求前缀和，只占用与顶点数量成正比的内存
+        long[] cursor = new long[vLen + 1];
+        for (int v = 0; v < vLen; v++) {
+            for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                cursor[adjacency.edgeTarget(v, e) + 1]++;
+            }
+        }
+        LongBuffer[] offsets = allocateLongs(vLen + 1L);
+        for (int i = 0; i < vLen; i++) {
+            cursor[i + 1] += cursor[i];
+        }
+        for (int i = 0; i <= vLen; i++) {
+            put(offsets, i, cursor[i]);
+        }
+        long edgeSize = cursor[vLen];
+        IntBuffer[] targets = allocateInts(edgeSize);
+        for (int v = 0; v < vLen; v++) {
+            for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                put(targets, cursor[adjacency.edgeTarget(v, e)]++, v);
+            }
+        }
+        return new OffHeapAdjacency(vLen, edgeSize, offsets, targets);
+    }
+
+    /**
+     * 堆外CSR构建器：边先按输入顺序存放在堆外，build时用计数排序按源顶点分组，
+     * 同一顶点的邻接顶点保持插入顺序，边的数量可以超过2^31
+     */
+    static final class Builder implements Adjacency.Builder {
+        private int mVertexSize;
+        // 边的起始顶点和终止顶点，每块满后再分配下一块
+        private IntBuffer[] mSources = new IntBuffer[0];
+        private IntBuffer[] mTargets = new IntBuffer[0];
+        // 已收集的边的数量
+        private long mSize;
+
+        Builder(int vertexSize) {
+            this.mVertexSize = vertexSize;
+        }
+
+        @Override
+        public int addVertex() {
+            return mVertexSize++;
+        }
+
+        @Override
+        public Builder addEdge(int sp, int ep) {
+            if (sp < 0 || sp >= mVertexSize || ep < 0 || ep >= mVertexSize) {
+                throw new IndexOutOfBoundsException("edge " + sp + "->" + ep);
+            }
+            int chunk = (int)(mSize >>> CHUNK_SHIFT);
+            int i = (int)(mSize & CHUNK_MASK);
+            if (chunk == mSources.length) {
+                // 第一块从较小的容量开始按需扩容，之后的块直接分配满容量
+                int capacity = chunk == 0 ? 1 << 16 : CHUNK_SIZE;
+                mSources = Arrays.copyOf(mSources, chunk + 1);
+                mTargets = Arrays.copyOf(mTargets, chunk + 1);
+                mSources[chunk] = allocateInts(capacity)[0];
+                mTargets[chunk] = allocateInts(capacity)[0];
+            } else if (i == mSources[chunk].capacity()) {
+                mSources[chunk] = grow(mSources[chunk]);
+                mTargets[chunk] = grow(mTargets[chunk]);
+            }
+            mSources[chunk].put(i, sp);
+            mTargets[chunk].put(i, ep);
+            mSize++;
+            return this;
+        }
+
+        private static IntBuffer grow(IntBuffer chunk) {
+            IntBuffer ret = allocateInts(Math.min(CHUNK_SIZE, chunk.capacity() * 2L))[0];
+            chunk.clear();
+            ret.put(chunk);
+            return ret;
+        }
+
+        @Override
+        public OffHeapAdjacency build() {
+            int vLen = mVertexSize;
+            long[] cursor = new long[vLen + 1];
+            for (long i = 0; i < mSize; i++) {
+                cursor[get(mSources, i) + 1]++;
+            }
+            for (int i = 0; i < vLen; i++) {
+                cursor[i + 1] += cursor[i];
+            }
+            LongBuffer[] offsets = allocateLongs(vLen + 1L);
+            for (int i = 0; i <= vLen; i++) {
+                put(offsets, i, cursor[i]);
+            }
+            IntBuffer[] targets = allocateInts(mSize);
+            for (long i = 0; i < mSize; i++) {
+                put(targets, cursor[get(mSources, i)]++, get(mTargets, i));
+            }
+            OffHeapAdjacency ret = new OffHeapAdjacency(vLen, mSize, offsets, targets);
+            // 收集的边不再需要，释放引用以便回收直接缓冲区
+            mSources = new IntBuffer[0];
+            mTargets = new IntBuffer[0];
+            mSize = 0;
+            return ret;
+        }
+    }
+
+    @Override
+    public int vertexSize() {
+        return mVertexSize;
+    }
+
+    /**
+     * 获取边的数量
+     */
+    long edgeSize() {
+        return mEdgeSize;
+    }
+
+    /**
+     * 顶点v的第一条边在对端顶点数组中的位置
+     */
+    long offset(int v) {
+        return get(mOffsets, v);
+    }
+
+    /**
+     * 对端顶点数组中位置为i的元素
+     */
+    int target(long i) {
+        return get(mTargets, i);
+    }
+
+    @Override
+    public int degree(int v) {
+        return (int)(offset(v + 1) - offset(v));
+    }
+
+    @Override
+    public int firstEdge(int v) {
+        return degree(v) > 0 ? 0 : -1;
+    }
+
+    @Override
+    public int nextEdge(int v, int e) {
+        return e + 1 < degree(v) ? e + 1 : -1;
+    }
+
+    @Override
+    public int edgeTarget(int v, int e) {
+        return target(offset(v) + e);
+    }
+
+    @Override
+    public int[] adjacent(int v) {
+        long from = offset(v);
+        int[] ret = new int[(int)(offset(v + 1) - from)];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = target(from + i);
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,282 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 有向图的并行方向优化广度优先搜索(Beamer's direction-optimizing BFS)
+ * 1. 前沿较小时自顶向下：并行扫描前沿顶点的出边，用CAS认领未访问的邻接顶点；
+ * 2. 前沿的出边数量超过未访问顶点的出边数量的1/ALPHA时切换为自底向上：
+ *    并行扫描所有未访问顶点的入边，找到一个在前沿中的父顶点即停止；
+ * 3. 前沿顶点数量少于顶点总数的1/BETA时切换回自顶向下。
+ * 结果为从起点出发的每个顶点的层数和BFS树上的父顶点，不可达的顶点两者都为-1，起点的父顶点是它自己
+ *
+ * @author tuhailong
+ */
+public class ParallelBfs {
+    // 切换到自底向上的阈值参数
+    private static final int ALPHA = 14;
+    // 切换回自顶向下的阈值参数
+    private static final int BETA = 24;
+    // 每个并行任务至少处理的顶点数量，自底向上时须为64的倍数
+    private static final int GRAIN = 2048;
+
+    // 出边
+    private final Adjacency mOut;
+    // 入边
+    private final Adjacency mIn;
+    private final int mVertexSize;
+    // 每个顶点的层数
+    private final int[] mDepths;
+    // 每个顶点在BFS树上的父顶点
+    private final AtomicIntegerArray mParents;
+    // 执行的层数中采用自底向上的层数
+    private int mBottomUpLevels;
+
+    public ParallelBfs(DirectedGraph<?> graph, int source) {
+        this(graph, source, ForkJoinPool.commonPool());
+    }
+
+    public ParallelBfs(DirectedGraph<?> graph, int source, ForkJoinPool pool) {
+        this.mOut = graph.adjacency();
+        // 入边按图的修改版本缓存，同一版本上的多次搜索不会重复转置
+        this.mIn = graph.inEdges();
+        this.mVertexSize = mOut.vertexSize();
+        if (source < 0 || source >= mVertexSize) {
+            throw new IndexOutOfBoundsException("source " + source);
+        }
+        this.mDepths = new int[mVertexSize];
+        this.mParents = new AtomicIntegerArray(mVertexSize);
+        Arrays.fill(mDepths, -1);
+        for (int v = 0; v < mVertexSize; v++) {
+            mParents.set(v, -1);
+        }
+        search(source, pool);
+    }
+
+    private void search(int source, ForkJoinPool pool) {
+        int vLen = mVertexSize;
+        // 未访问顶点的出边数量
+        long unexplored = 0;
+        for (int v = 0; v < vLen; v++) {
+            unexplored += mOut.degree(v);
+        }
+
+        mParents.set(source, source);
+        mDepths[source] = 0;
+        // 自顶向下时前沿存放在队列中
+        int[] queue = new int[vLen];
+        int[] nextQueue = new int[vLen];
+        int frontierSize = 1;
+        queue[0] = source;
+        // 自底向上时前沿存放在位图中
+        long[] bits = null;
+        long[] nextBits = null;
+        // 前沿顶点的出边数量
+        long frontierEdges = mOut.degree(source);
+        unexplored -= frontierEdges;
+        boolean bottomUp = false;
+
+        for (int level = 0; frontierSize > 0; level++) {
+            if (!bottomUp && frontierEdges > unexplored / ALPHA) {
+                // 队列转换为位图
+                bottomUp = true;
+                if (bits == null) {
+                    bits = new long[BitMatrix.wordsFor(vLen)];
+                    nextBits = new long[bits.length];
+                }
+                Arrays.fill(bits, 0L);
+                for (int i = 0; i < frontierSize; i++) {
+                    bits[queue[i] >>> 6] |= 1L << queue[i];
+                }
+            } else if (bottomUp && frontierSize < vLen / BETA) {
+                // 位图转换为队列
+                bottomUp = false;
+                frontierSize = 0;
+                for (int v = BitMatrix.nextSetBit(bits, 0); v >= 0; v = BitMatrix.nextSetBit(bits, v + 1)) {
+                    queue[frontierSize++] = v;
+                }
+            }
+
+            if (bottomUp) {
+                Arrays.fill(nextBits, 0L);
+                BottomUpStep step = new BottomUpStep(level, bits, nextBits, 0, vLen);
+                pool.invoke(step);
+                long[] tmp = bits;
+                bits = nextBits;
+                nextBits = tmp;
+                frontierSize = step.mCount;
+                frontierEdges = step.mEdges;
+                mBottomUpLevels++;
+            } else {
+                AtomicInteger tail = new AtomicInteger();
+                TopDownStep step = new TopDownStep(level, queue, nextQueue, tail, 0, frontierSize);
+                pool.invoke(step);
+                int[] tmp = queue;
+                queue = nextQueue;
+                nextQueue = tmp;
+                frontierSize = tail.get();
+                frontierEdges = step.mEdges;
+            }
+            unexplored -= frontierEdges;
+        }
+    }
+
+    /**
+     * 自顶向下的一层：处理queue[lo, hi)中的前沿顶点
+     */
+    private class TopDownStep extends RecursiveAction {
+        private final int mLevel;
+        private final int[] mQueue;
+        private final int[] mNext;
+        private final AtomicInteger mTail;
+        private final int mLo;
+        private final int mHi;
+        // 新前沿顶点的出边数量
+        long mEdges;
+
+        TopDownStep(int level, int[] queue, int[] next, AtomicInteger tail, int lo, int hi) {
+            this.mLevel = level;
+            this.mQueue = queue;
+            this.mNext = next;
+            this.mTail = tail;
+            this.mLo = lo;
+            this.mHi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (mHi - mLo > GRAIN) {
+                int mid = (mLo + mHi) >>> 1;
+                TopDownStep left = new TopDownStep(mLevel, mQueue, mNext, mTail, mLo, mid);
+                TopDownStep right = new TopDownStep(mLevel, mQueue, mNext, mTail, mid, mHi);
+                invokeAll(left, right);
+                mEdges = left.mEdges + right.mEdges;
+                return;
+            }
+            Adjacency g = mOut;
+            int[] local = new int[64];
+            int size = 0;
+            long edges = 0;
+            for (int i = mLo; i < mHi; i++) {
+                int v = mQueue[i];
+                for (int e = g.firstEdge(v); e >= 0; e = g.nextEdge(v, e)) {
+                    int w = g.edgeTarget(v, e);
+                    if (mParents.get(w) == -1 && mParents.compareAndSet(w, -1, v)) {
+                        mDepths[w] = mLevel + 1;
+                        edges += g.degree(w);
+                        if (size == local.length) {
+                            local = Arrays.copyOf(local, size * 2);
+                        }
+                        local[size++] = w;
+                    }
+                }
+            }
+            int pos = mTail.getAndAdd(size);
+            System.arraycopy(local, 0, mNext, pos, size);
+            mEdges = edges;
+        }
+    }
+
+    /**
+     * 自底向上的一层：处理序号在[lo, hi)中的未访问顶点，lo为64的倍数，
+     * 因此每个任务只写位图中属于自己的字
+     */
+    private class BottomUpStep extends RecursiveAction {
+        private final int mLevel;
+        private final long[] mBits;
+        private final long[] mNextBits;
+        private final int mLo;
+        private final int mHi;
+        // 新前沿顶点的数量
+        int mCount;
+        // 新前沿顶点的出边数量
+        long mEdges;
+
+        BottomUpStep(int level, long[] bits, long[] nextBits, int lo, int hi) {
+            this.mLevel = level;
+            this.mBits = bits;
+            this.mNextBits = nextBits;
+            this.mLo = lo;
+            this.mHi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (mHi - mLo > GRAIN) {
+                int mid = ((mLo + mHi) >>> 1) & ~63;
+                if (mid > mLo) {
+                    BottomUpStep left = new BottomUpStep(mLevel, mBits, mNextBits, mLo, mid);
+                    BottomUpStep right = new BottomUpStep(mLevel, mBits, mNextBits, mid, mHi);
+                    invokeAll(left, right);
+                    mCount = left.mCount + right.mCount;
+                    mEdges = left.mEdges + right.mEdges;
+                    return;
+                }
+            }
+            Adjacency in = mIn;
+            int count = 0;
+            long edges = 0;
+            for (int v = mLo; v < mHi; v++) {
+                if (mParents.get(v) != -1) {
+                    continue;
+                }
+                for (int e = in.firstEdge(v); e >= 0; e = in.nextEdge(v, e)) {
+                    int u = in.edgeTarget(v, e);
+                    if ((mBits[u >>> 6] & (1L << u)) != 0) {
+                        mParents.set(v, u);
+                        mDepths[v] = mLevel + 1;
+                        mNextBits[v >>> 6] |= 1L << v;
+                        count++;
+                        edges += mOut.degree(v);
+                        break;
+                    }
+                }
+            }
+            mCount = count;
+            mEdges = edges;
+        }
+    }
+
+    /**
+     * 顶点数组中序号为v的顶点距起点的层数，不可达则返回-1
+     */
+    public int depth(int v) {
+        return mDepths[v];
+    }
+
+    /**
+     * 顶点数组中序号为v的顶点在BFS树上的父顶点，不可达则返回-1
+     */
+    public int parent(int v) {
+        return mParents.get(v);
+    }
+
+    /**
+     * 所有顶点的层数
+     */
+    public int[] depths() {
+        return Arrays.copyOf(mDepths, mDepths.length);
+    }
+
+    /**
+     * 所有顶点在BFS树上的父顶点
+     */
+    public int[] parents() {
+        int[] ret = new int[mVertexSize];
+        for (int v = 0; v < mVertexSize; v++) {
+            ret[v] = mParents.get(v);
+        }
+        return ret;
+    }
+
+    /**
+     * 采用自底向上方式扩展的层数
+     */
+    public int bottomUpLevels() {
+        return mBottomUpLevels;
+    }
+}
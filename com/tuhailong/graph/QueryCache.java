@@ -0,0 +1,345 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * 图查询结果的缓存，适用于很少修改、反复查询的图
+ * 1. 强连通分量(有向图)或连通分量(无向图)每个修改版本只求一次，connected直接查询分量；
+ * 2. allConnected、reachable、reaches的结果按查询参数存放在容量有限的LRU表中；
+ * 3. 每次查询先比较图的修改版本号，图被修改后所有缓存的结果一起作废。
+ * 统计命中、未命中、淘汰和作废的次数，可以被多个线程共用：
+ * 版本比较和分量的读取不加锁，LRU表只在查找和插入时短暂加锁；
+ * 未命中的查询在锁外计算，同时查询同一参数的其他线程等待同一个结果，不会重复计算
+ *
+ * @author tuhailong
+ */
+public final class QueryCache {
+    // 查询的种类
+    private static final int ALL_CONNECTED = 0;
+    private static final int REACHABLE = 1;
+    private static final int REACHES = 2;
+
+    // 两者只有一个不为null
+    private final DirectedGraph<?> mDirected;
+    private final UndirectedGraph<?> mUndirected;
+    private final int mCapacity;
+    // 当前修改版本的全部缓存结果
+    private final AtomicReference<Generation> mGeneration;
+
+    private final LongAdder mHits = new LongAdder();
+    private final LongAdder mMisses = new LongAdder();
+    private final LongAdder mEvictions = new LongAdder();
+    private final LongAdder mInvalidations = new LongAdder();
+
+    public QueryCache(DirectedGraph<?> graph, int capacity) {
+        this(graph, null, capacity);
+    }
+
+    public QueryCache(UndirectedGraph<?> graph, int capacity) {
+        this(null, graph, capacity);
+    }
+
+    private QueryCache(DirectedGraph<?> directed, UndirectedGraph<?> undirected, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity " + capacity);
+        }
+        this.mDirected = directed;
+        this.mUndirected = undirected;
+        this.mCapacity = capacity;
+        this.mGeneration = new AtomicReference<>(new Generation(version()));
+    }
+
+    private static final class Key {
+        final int kind;
+        final int v;
+        final int w;
+
+        Key(int kind, int v, int w) {
+            this.kind = kind;
+            this.v = v;
+            this.w = w;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key)o;
+            return kind == k.kind && v == k.v && w == k.w;
+        }
+
+        @Override
+        public int hashCode() {
+            return (kind * 31 + v) * 0x9E3779B9 + w;
+        }
+    }
+
+    /**
+     * 同一修改版本的缓存结果，图被修改后整体替换
+     * 表中存放结果的future，计算完成前插入，等待的线程和计算的线程共用
+     */
+    private final class Generation {
+        final long version;
+        // 按访问顺序排列，最久未访问的在最前面，访问时锁住自身
+        final LinkedHashMap<Key, CompletableFuture<Object>> entries;
+        // 顶点序号到分量编号的映射
+        final AtomicReference<CompletableFuture<IntUnaryOperator>> components = new AtomicReference<>();
+
+        Generation(long version) {
+            this.version = version;
+            this.entries = new LinkedHashMap<Key, CompletableFuture<Object>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<Object>> eldest) {
+                    if (size() > mCapacity) {
+                        mEvictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private long version() {
+        return mDirected != null ? mDirected.version() : mUndirected.version();
+    }
+
+    private int vertexSize() {
+        return mDirected != null ? mDirected.vertexSize() : mUndirected.vertexSize();
+    }
+
+    // 当前版本的缓存，图被修改后换成新的一代，旧的结果一起作废；版本号只增不减
+    private Generation generation() {
+        long version = version();
+        Generation g = mGeneration.get();
+        while (g.version < version) {
+            Generation next = new Generation(version);
+            if (mGeneration.compareAndSet(g, next)) {
+                mInvalidations.increment();
+                return next;
+            }
+            g = mGeneration.get();
+        }
+        return g;
+    }
+
+    // 查找缓存的结果，没有则由当前线程在锁外计算，统计命中和未命中
+    private Object lookup(Generation g, Key key, Supplier<Object> query) {
+        CompletableFuture<Object> future;
+        CompletableFuture<Object> mine = null;
+        synchronized (g.entries) {
+            future = g.entries.get(key);
+            if (future == null) {
+                future = mine = new CompletableFuture<>();
+                g.entries.put(key, mine);
+            }
+        }
+        if (mine == null) {
+            mHits.increment();
+            return join(future);
+        }
+        mMisses.increment();
+        try {
+            Object ret = query.get();
+            mine.complete(ret);
+            return ret;
+        } catch (RuntimeException | Error e) {
+            // 失败的结果不缓存，等待的线程得到同样的异常
+            synchronized (g.entries) {
+                g.entries.remove(key, mine);
+            }
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw e;
+        }
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= vertexSize()) {
+            throw new IndexOutOfBoundsException("vertex " + v);
+        }
+    }
+
+    // 当前版本的分量，第一次需要时由一个线程求出，记为一次未命中，此后的读取不加锁也不计数
+    private IntUnaryOperator components(Generation g) {
+        while (true) {
+            CompletableFuture<IntUnaryOperator> future = g.components.get();
+            if (future != null) {
+                return join(future);
+            }
+            CompletableFuture<IntUnaryOperator> mine = new CompletableFuture<>();
+            if (!g.components.compareAndSet(null, mine)) {
+                continue;
+            }
+            mMisses.increment();
+            try {
+                IntUnaryOperator ret;
+                if (mDirected != null) {
+                    ret = new DirectedGraph.StronglyConnectedComponent<>(mDirected)::id;
+                } else {
+                    ret = new UndirectedGraph.ConnectedComponent<>(mUndirected)::id;
+                }
+                mine.complete(ret);
+                return ret;
+            } catch (RuntimeException | Error e) {
+                g.components.compareAndSet(mine, null);
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 顶点数组中序号为v的顶点和序号为w的顶点是否强连通(有向图)或连通(无向图)
+     */
+    public boolean connected(int v, int w) {
+        checkVertex(v);
+        checkVertex(w);
+        IntUnaryOperator ids = components(generation());
+        return ids.applyAsInt(v) == ids.applyAsInt(w);
+    }
+
+    /**
+     * 与顶点数组中序号为v的顶点强连通(有向图)或连通(无向图)的所有顶点序号，按序号升序排列
+     */
+    public int[] allConnected(int v) {
+        checkVertex(v);
+        Generation g = generation();
+        int[] ret = (int[])lookup(g, new Key(ALL_CONNECTED, v, 0), () -> {
+            IntUnaryOperator ids = components(g);
+            int id = ids.applyAsInt(v);
+            int vLen = vertexSize();
+            int size = 0;
+            int[] members = new int[vLen];
+            for (int w = 0; w < vLen; w++) {
+                if (ids.applyAsInt(w) == id) {
+                    members[size++] = w;
+                }
+            }
+            return Arrays.copyOf(members, size);
+        });
+        return Arrays.copyOf(ret, ret.length);
+    }
+
+    /**
+     * 从顶点数组中序号为source的顶点可达的所有顶点序号(包括自己)，按广度优先的访问顺序排列
+     */
+    public int[] reachable(int source) {
+        checkVertex(source);
+        int[] ret = (int[])lookup(generation(), new Key(REACHABLE, source, 0), () -> {
+            int[] order = new int[vertexSize()];
+            int[] size = new int[1];
+            VertexVisitor visitor = v -> {
+                order[size[0]++] = v;
+                return true;
+            };
+            if (mDirected != null) {
+                mDirected.bfs(source, visitor, TraversalContext.local());
+            } else {
+                mUndirected.bfs(source, visitor, TraversalContext.local());
+            }
+            return Arrays.copyOf(order, size[0]);
+        });
+        return Arrays.copyOf(ret, ret.length);
+    }
+
+    /**
+     * 从顶点数组中序号为u的顶点是否可达序号为v的顶点，u总是可达自己
+     * 同一分量中的顶点直接回答，否则深度优先搜索到v为止
+     */
+    public boolean reaches(int u, int v) {
+        checkVertex(u);
+        checkVertex(v);
+        Generation g = generation();
+        return (Boolean)lookup(g, new Key(REACHES, u, v), () -> {
+            IntUnaryOperator ids = components(g);
+            if (ids.applyAsInt(u) == ids.applyAsInt(v)) {
+                return true;
+            }
+            if (mUndirected != null) {
+                return false;
+            }
+            // 找到v时visitor返回false，遍历提前终止
+            return !mDirected.dfs(u, w -> w != v, TraversalContext.local());
+        });
+    }
+
+    /**
+     * 清空所有缓存的结果，统计数据保留
+     */
+    public void clear() {
+        Generation g = mGeneration.get();
+        mGeneration.compareAndSet(g, new Generation(g.version));
+    }
+
+    /**
+     * 缓存的查询结果数量，不含分量
+     */
+    public int size() {
+        Generation g = generation();
+        synchronized (g.entries) {
+            return g.entries.size();
+        }
+    }
+
+    public int capacity() {
+        return mCapacity;
+    }
+
+    public long hits() {
+        return mHits.sum();
+    }
+
+    /**
+     * 未命中的次数，每个版本求分量记为一次
+     */
+    public long misses() {
+        return mMisses.sum();
+    }
+
+    /**
+     * 因容量不够被淘汰的结果数量
+     */
+    public long evictions() {
+        return mEvictions.sum();
+    }
+
+    /**
+     * 因图被修改而作废全部结果的次数
+     */
+    public long invalidations() {
+        return mInvalidations.sum();
+    }
+
+    /**
+     * 命中率，没有查询时为0
+     */
+    public double hitRate() {
+        long hits = mHits.sum();
+        long total = hits + mMisses.sum();
+        return total == 0 ? 0 : (double)hits / total;
+    }
+}
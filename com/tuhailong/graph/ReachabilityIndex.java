@@ -0,0 +1,298 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有向图的可达性索引(GRAIL)，建立在强连通分量的缩点图上：
+ * 1. 同一个强连通分量中的顶点互相可达；
+ * 2. 强连通分量按逆拓扑序编号，缩点图中的边总是由编号大的分量指向编号小的分量，
+ *    因此u所在分量的编号小于v所在分量的编号时u一定不可达v；
+ * 3. 每个分量有LABELS个区间标签[low, post]：post为某次DFS的后序编号，low为所有后代的最小post，
+ *    u可达v时v的每个区间都包含在u的对应区间中，任意一个不包含即可断定不可达；
+ * 4. 若v是u在第一棵随机DFS树中的后代，则u一定可达v；
+ * 5. 以上都无法判定时在缩点图上DFS，用2和3剪枝。
+ * 大多数查询由1-4在O(LABELS)时间内回答
+ * 索引建成后只读，可以被多个线程同时查询，回退搜索使用调用方的遍历上下文；
+ * 图修改后需要重新构建，可用isStale判断
+ *
+ * @author tuhailong
+ */
+public final class ReachabilityIndex {
+    // 每个分量的区间标签数量，第一个标签直接使用分量编号作为后序编号
+    private static final int LABELS = 3;
+    // 第二个标签来自随机DFS，它的post同时是DFS树的后序编号
+    private static final int TREE_POST = 3;
+
+    private final DirectedGraph<?> mGraph;
+    // 构建时图的修改版本号
+    private final long mVersion;
+    // 每个顶点所在的强连通分量
+    private final int[] mComponents;
+    // 缩点图，边已去重
+    private final CompressedSparseRow mDag;
+    // 分量c的第k个标签：mLabels[c * 2 * LABELS + 2 * k]为low，+1为post
+    private final int[] mLabels;
+    // 第一棵随机DFS树中的先序编号
+    private final int[] mTreePre;
+    private final long mBuildNanos;
+    private final LongAdder mQueries = new LongAdder();
+    private final LongAdder mSearches = new LongAdder();
+
+    public ReachabilityIndex(DirectedGraph<?> graph) {
+        Instrumentation.Probe probe = Instrumentation.begin("ReachabilityIndex.build");
+        long start = System.nanoTime();
+        mGraph = graph;
+        mVersion = graph.version();
+        Adjacency g = graph.adjacency();
+        int vLen = g.vertexSize();
+
+        DirectedGraph.StronglyConnectedComponent<?> scc = new DirectedGraph.StronglyConnectedComponent<>(graph);
+        int cLen = scc.count();
+        mComponents = new int[vLen];
+        for (int v = 0; v < vLen; v++) {
+            mComponents[v] = scc.id(v);
+        }
+        mDag = condense(g, mComponents, cLen);
+
+        mLabels = new int[cLen * 2 * LABELS];
+        mTreePre = new int[cLen];
+        // 分量编号本身就是一次DFS的后序编号，后代的编号都更小
+        for (int c = 0; c < cLen; c++) {
+            int low = c;
+            for (int e = mDag.firstEdge(c); e >= 0; e = mDag.nextEdge(c, e)) {
+                low = Math.min(low, mLabels[mDag.edgeTarget(c, e) * 2 * LABELS]);
+            }
+            mLabels[c * 2 * LABELS] = low;
+            mLabels[c * 2 * LABELS + 1] = c;
+        }
+        Random random = new Random(cLen);
+        for (int k = 1; k < LABELS; k++) {
+            randomizedLabels(k, random, k == 1 ? mTreePre : null);
+        }
+
+        mBuildNanos = System.nanoTime() - start;
+        if (probe != null) {
+            probe.end(vLen, mDag.edgeSize(), 0);
+        }
+    }
+
+    /**
+     * 由顶点所在的分量构造缩点图，去掉分量内部的边和重复的边
+     */
+    private static CompressedSparseRow condense(Adjacency g, int[] components, int cLen) {
+        CompressedSparseRow.Builder builder = new CompressedSparseRow.Builder(cLen, cLen);
+        int vLen = g.vertexSize();
+        for (int v = 0; v < vLen; v++) {
+            int cv = components[v];
+            for (int e = g.firstEdge(v); e >= 0; e = g.nextEdge(v, e)) {
+                int cw = components[g.edgeTarget(v, e)];
+                if (cw != cv) {
+                    builder.addEdge(cv, cw);
+                }
+            }
+        }
+        CompressedSparseRow dag = builder.build();
+        // 去掉同一分量的重复出边
+        int[] offsets = dag.offsets();
+        int[] targets = dag.targets();
+        int[] seen = new int[cLen];
+        Arrays.fill(seen, -1);
+        CompressedSparseRow.Builder unique = new CompressedSparseRow.Builder(cLen, dag.edgeSize());
+        for (int c = 0; c < cLen; c++) {
+            for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+                int w = targets[i];
+                if (seen[w] != c) {
+                    seen[w] = c;
+                    unique.addEdge(c, w);
+                }
+            }
+        }
+        return unique.build();
+    }
+
+    /**
+     * 用一次随机的DFS计算第k个标签：随机选择根的顺序，每个分量从随机位置开始枚举出边；
+     * pre不为null时同时记录DFS树中的先序编号
+     */
+    private void randomizedLabels(int k, Random random, int[] pre) {
+        CompressedSparseRow dag = mDag;
+        int cLen = dag.vertexSize();
+        int[] offsets = dag.offsets();
+        int[] targets = dag.targets();
+        int[] labels = mLabels;
+        int base = 2 * k;
+
+        int[] roots = new int[cLen];
+        for (int i = 0; i < cLen; i++) {
+            roots[i] = i;
+        }
+        for (int i = cLen - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = roots[i];
+            roots[i] = roots[j];
+            roots[j] = tmp;
+        }
+
+        boolean[] visited = new boolean[cLen];
+        int[] stack = new int[cLen];
+        // 每个分量已枚举的出边数量和枚举的起始位置
+        int[] steps = new int[cLen];
+        int[] rotations = new int[cLen];
+        int post = 0;
+        int preCount = 0;
+        for (int root : roots) {
+            if (visited[root]) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = root;
+            visited[root] = true;
+            if (pre != null) {
+                pre[root] = preCount++;
+            }
+            int degree = offsets[root + 1] - offsets[root];
+            rotations[root] = degree > 0 ? random.nextInt(degree) : 0;
+            while (top > 0) {
+                int c = stack[top - 1];
+                int from = offsets[c];
+                int deg = offsets[c + 1] - from;
+                if (steps[c] < deg) {
+                    int i = steps[c] + rotations[c];
+                    int w = targets[from + (i >= deg ? i - deg : i)];
+                    steps[c]++;
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        if (pre != null) {
+                            pre[w] = preCount++;
+                        }
+                        int d = offsets[w + 1] - offsets[w];
+                        rotations[w] = d > 0 ? random.nextInt(d) : 0;
+                        stack[top++] = w;
+                    }
+                    continue;
+                }
+                // c的所有后代都已完成
+                int low = post;
+                for (int i = from; i < from + deg; i++) {
+                    low = Math.min(low, labels[targets[i] * 2 * LABELS + base]);
+                }
+                labels[c * 2 * LABELS + base] = low;
+                labels[c * 2 * LABELS + base + 1] = post++;
+                top--;
+            }
+        }
+    }
+
+    /**
+     * 顶点数组中序号为u的顶点是否可达序号为v的顶点，u总是可达自己
+     */
+    public boolean reach(int u, int v) {
+        return reach(u, v, TraversalContext.local());
+    }
+
+    /**
+     * 同reach(u, v)，需要在缩点图上搜索时使用context中的访问标记和栈
+     */
+    public boolean reach(int u, int v, TraversalContext context) {
+        mQueries.increment();
+        int cu = mComponents[u];
+        int cv = mComponents[v];
+        if (cu == cv) {
+            return true;
+        }
+        if (cu < cv || !contains(cu, cv)) {
+            return false;
+        }
+        // DFS树中的祖先一定可达后代
+        if (mTreePre[cu] <= mTreePre[cv]
+                && mLabels[cv * 2 * LABELS + TREE_POST] <= mLabels[cu * 2 * LABELS + TREE_POST]) {
+            return true;
+        }
+        mSearches.increment();
+        return search(cu, cv, context);
+    }
+
+    // 分量cv的所有区间是否都包含在分量cu的对应区间中
+    private boolean contains(int cu, int cv) {
+        int[] labels = mLabels;
+        int bu = cu * 2 * LABELS;
+        int bv = cv * 2 * LABELS;
+        for (int i = 0; i < 2 * LABELS; i += 2) {
+            if (labels[bv + i] < labels[bu + i] || labels[bv + i + 1] > labels[bu + i + 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 在缩点图上由cu开始DFS，只进入编号不小于cv且区间包含cv的分量
+    private boolean search(int cu, int cv, TraversalContext context) {
+        context.begin(mDag.vertexSize());
+        int[] stack = context.stack();
+        int[] offsets = mDag.offsets();
+        int[] targets = mDag.targets();
+        int top = 0;
+        stack[top++] = cu;
+        context.visit(cu);
+        while (top > 0) {
+            int c = stack[--top];
+            for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+                int w = targets[i];
+                if (w == cv) {
+                    return true;
+                }
+                if (w > cv && !context.visited(w) && contains(w, cv)) {
+                    context.visit(w);
+                    stack[top++] = w;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 图在构建索引之后是否被修改过，修改后的查询结果没有意义
+     */
+    public boolean isStale() {
+        return mGraph.version() != mVersion;
+    }
+
+    /**
+     * 强连通分量的数量，即缩点图的顶点数量
+     */
+    public int componentCount() {
+        return mDag.vertexSize();
+    }
+
+    /**
+     * 构建索引的耗时(纳秒)
+     */
+    public long buildNanos() {
+        return mBuildNanos;
+    }
+
+    /**
+     * 索引占用的内存(字节)，只计算数组本身，不含回退搜索所用的遍历上下文
+     */
+    public long memoryBytes() {
+        long ints = mComponents.length + mDag.offsets().length + mDag.targets().length
+                + mLabels.length + mTreePre.length;
+        return ints * Integer.BYTES;
+    }
+
+    /**
+     * 已回答的查询数量
+     */
+    public long queries() {
+        return mQueries.sum();
+    }
+
+    /**
+     * 需要在缩点图上搜索才能回答的查询数量
+     */
+    public long searches() {
+        return mSearches.sum();
+    }
+}
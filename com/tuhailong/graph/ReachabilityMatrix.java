@@ -0,0 +1,114 @@
+package com.tuhailong.graph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 传递闭包：第i行第j位为1表示存在一条由i到j、至少包含一条边的路径，
+ * 因此i可达自己当且仅当i在某个环上(无向图中i至少有一条边)
+ * 用按位压缩的Warshall算法计算：对每个中转顶点k，所有第k位为1的行并上第k行，
+ * 每次按字处理64列；同一个k的各行互不依赖，由ForkJoin并行处理，O(V^3 / 64)
+ *
+ * @author tuhailong
+ */
+public final class ReachabilityMatrix {
+    // 每个并行任务至少处理的行数
+    private static final int GRAIN = 64;
+
+    private final BitMatrix mMatrix;
+
+    private ReachabilityMatrix(BitMatrix matrix) {
+        this.mMatrix = matrix;
+    }
+
+    /**
+     * 计算adjacency的传递闭包，adjacency本身不变
+     */
+    static ReachabilityMatrix closure(BitMatrix adjacency, ForkJoinPool pool) {
+        Instrumentation.Probe probe = Instrumentation.begin("ReachabilityMatrix.closure");
+        int vLen = adjacency.size();
+        // closure是新建的矩阵，直接修改它的行
+        BitMatrix closure = new BitMatrix(vLen);
+        long edges = 0;
+        for (int i = 0; i < vLen; i++) {
+            BitMatrix.or(closure.row(i), adjacency.row(i));
+            edges += adjacency.degree(i);
+        }
+        for (int k = 0; k < vLen; k++) {
+            if (vLen > GRAIN) {
+                pool.invoke(new Step(closure, k, 0, vLen));
+            } else {
+                pass(closure, k, 0, vLen);
+            }
+        }
+        if (probe != null) {
+            probe.end(vLen, edges, 0);
+        }
+        return new ReachabilityMatrix(closure);
+    }
+
+    // 以k为中转顶点更新[lo, hi)中的行
+    private static void pass(BitMatrix closure, int k, int lo, int hi) {
+        long[] rowK = closure.row(k);
+        int word = k >>> 6;
+        long bit = 1L << k;
+        for (int i = lo; i < hi; i++) {
+            long[] row = closure.row(i);
+            if ((row[word] & bit) != 0) {
+                BitMatrix.or(row, rowK);
+            }
+        }
+    }
+
+    private static class Step extends RecursiveAction {
+        private final BitMatrix mClosure;
+        private final int mK;
+        private final int mLo;
+        private final int mHi;
+
+        Step(BitMatrix closure, int k, int lo, int hi) {
+            this.mClosure = closure;
+            this.mK = k;
+            this.mLo = lo;
+            this.mHi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (mHi - mLo > GRAIN) {
+                int mid = (mLo + mHi) >>> 1;
+                invokeAll(new Step(mClosure, mK, mLo, mid), new Step(mClosure, mK, mid, mHi));
+            } else {
+                pass(mClosure, mK, mLo, mHi);
+            }
+        }
+    }
+
+    /**
+     * 顶点数量
+     */
+    public int size() {
+        return mMatrix.size();
+    }
+
+    /**
+     * 是否存在由顶点数组中序号为from的顶点到序号为to的顶点的路径
+     */
+    public boolean reachable(int from, int to) {
+        return mMatrix.get(from, to);
+    }
+
+    /**
+     * 由顶点from可达的顶点数量
+     */
+    public int count(int from) {
+        return mMatrix.degree(from);
+    }
+
+    /**
+     * 由顶点from可达的所有顶点的序号，按序号升序排列
+     */
+    public int[] reachableFrom(int from) {
+        return mMatrix.adjacent(from);
+    }
+}
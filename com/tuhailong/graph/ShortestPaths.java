@@ -0,0 +1,203 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 单源最短路径的结果：从起点到每个顶点的最短距离和最短路径树上的父顶点
+ * 1. Dijkstra：要求权重非负，用索引4叉堆维护未确定的顶点，O((V + E)log V)，不装箱；
+ * 2. Bellman-Ford(队列优化)：允许负权重，最坏O(VE)，
+ *    某个顶点的最短路径包含的边数达到顶点数量时说明从起点可达负环。
+ *
+ * @author tuhailong
+ */
+public final class ShortestPaths {
+    private final int mSource;
+    // 从起点出发的最短距离，不可达为正无穷
+    private final double[] mDistances;
+    // 最短路径树上的父顶点，起点和不可达的顶点为-1
+    private final int[] mParents;
+    // 从起点可达负环
+    private final boolean mNegativeCycle;
+
+    private ShortestPaths(int source, double[] distances, int[] parents, boolean negativeCycle) {
+        this.mSource = source;
+        this.mDistances = distances;
+        this.mParents = parents;
+        this.mNegativeCycle = negativeCycle;
+    }
+
+    /**
+     * Dijkstra算法，遇到负权重时抛出IllegalArgumentException
+     */
+    static ShortestPaths dijkstra(WeightedAdjacency g, int source) {
+        Instrumentation.Probe probe = Instrumentation.begin("ShortestPaths.dijkstra");
+        int vLen = g.vertexSize();
+        checkSource(source, vLen);
+        double[] dist = new double[vLen];
+        int[] parents = new int[vLen];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, -1);
+
+        IndexedDaryHeap heap = new IndexedDaryHeap(vLen);
+        dist[source] = 0;
+        heap.offer(source, 0);
+        int settled = 0;
+        int maxFrontier = 1;
+        long edges = 0;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled++;
+            double du = dist[u];
+            for (int e = g.firstEdge(u); e >= 0; e = g.nextEdge(u, e)) {
+                double w = g.edgeWeight(u, e);
+                if (w < 0) {
+                    throw new IllegalArgumentException("negative weight " + w + " on an edge of vertex " + u
+                            + ", use bellmanFord");
+                }
+                int v = g.edgeTarget(u, e);
+                double d = du + w;
+                if (d < dist[v]) {
+                    dist[v] = d;
+                    parents[v] = u;
+                    heap.offer(v, d);
+                }
+            }
+            edges += g.degree(u);
+            maxFrontier = Math.max(maxFrontier, heap.size());
+        }
+        if (probe != null) {
+            probe.end(settled, edges, maxFrontier);
+        }
+        return new ShortestPaths(source, dist, parents, false);
+    }
+
+    /**
+     * 队列优化的Bellman-Ford算法，只有上一轮距离变小的顶点才需要再次松弛它的出边
+     */
+    static ShortestPaths bellmanFord(WeightedAdjacency g, int source) {
+        Instrumentation.Probe probe = Instrumentation.begin("ShortestPaths.bellmanFord");
+        int vLen = g.vertexSize();
+        checkSource(source, vLen);
+        double[] dist = new double[vLen];
+        int[] parents = new int[vLen];
+        // 当前最短路径包含的边数
+        int[] lengths = new int[vLen];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, -1);
+
+        // 循环队列，每个顶点最多同时在队列中出现一次
+        int[] queue = new int[vLen];
+        boolean[] queued = new boolean[vLen];
+        int head = 0;
+        int size = 1;
+        queue[0] = source;
+        queued[source] = true;
+        dist[source] = 0;
+        boolean negativeCycle = false;
+        int maxFrontier = 1;
+        long edges = 0;
+        long relaxed = 0;
+        while (size > 0 && !negativeCycle) {
+            int u = queue[head];
+            head = head + 1 == vLen ? 0 : head + 1;
+            size--;
+            queued[u] = false;
+            relaxed++;
+            double du = dist[u];
+            for (int e = g.firstEdge(u); e >= 0; e = g.nextEdge(u, e)) {
+                int v = g.edgeTarget(u, e);
+                double d = du + g.edgeWeight(u, e);
+                if (d < dist[v]) {
+                    dist[v] = d;
+                    parents[v] = u;
+                    lengths[v] = lengths[u] + 1;
+                    if (lengths[v] >= vLen) {
+                        negativeCycle = true;
+                        break;
+                    }
+                    if (!queued[v]) {
+                        queued[v] = true;
+                        int tail = head + size;
+                        queue[tail >= vLen ? tail - vLen : tail] = v;
+                        size++;
+                    }
+                }
+            }
+            edges += g.degree(u);
+            maxFrontier = Math.max(maxFrontier, size);
+        }
+        if (probe != null) {
+            probe.end(relaxed, edges, maxFrontier);
+        }
+        return new ShortestPaths(source, dist, parents, negativeCycle);
+    }
+
+    private static void checkSource(int source, int vLen) {
+        if (source < 0 || source >= vLen) {
+            throw new IndexOutOfBoundsException("source " + source);
+        }
+    }
+
+    /**
+     * 起点在顶点数组中的序号
+     */
+    public int source() {
+        return mSource;
+    }
+
+    /**
+     * 从起点到顶点数组中序号为v的顶点的最短距离，不可达则返回正无穷
+     */
+    public double distance(int v) {
+        return mDistances[v];
+    }
+
+    /**
+     * 所有顶点的最短距离
+     */
+    public double[] distances() {
+        return Arrays.copyOf(mDistances, mDistances.length);
+    }
+
+    /**
+     * 从起点是否可达顶点数组中序号为v的顶点
+     */
+    public boolean hasPath(int v) {
+        return mDistances[v] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * 最短路径树上顶点v的父顶点，起点和不可达的顶点返回-1
+     */
+    public int parent(int v) {
+        return mParents[v];
+    }
+
+    /**
+     * 从起点到顶点v的最短路径上的所有顶点序号，不可达则返回空数组
+     */
+    public int[] path(int v) {
+        if (mNegativeCycle) {
+            throw new IllegalStateException("negative cycle reachable from source " + mSource);
+        }
+        if (!hasPath(v)) {
+            return new int[0];
+        }
+        int len = 1;
+        for (int w = v; w != mSource; w = mParents[w]) {
+            len++;
+        }
+        int[] ret = new int[len];
+        for (int w = v, i = len - 1; i >= 0; w = mParents[w], i--) {
+            ret[i] = w;
+        }
+        return ret;
+    }
+
+    /**
+     * 从起点是否可达负环，可达时距离没有意义
+     */
+    public boolean hasNegativeCycle() {
+        return mNegativeCycle;
+    }
+}
@@ -0,0 +1,262 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 有向图的拓扑排序结果：无环时为拓扑序和每个顶点的层数，有环时为一个环
+ * 1. sort：三色DFS，逆后序即拓扑序，遇到回边时栈中的一段就是环，O(V + E)；
+ * 2. levels：按层同步的并行Kahn算法，每一层并行处理入度为0的顶点，
+ *    用原子操作减少邻接顶点的入度，减到0的顶点进入下一层；有环时退回到sort求出环。
+ * 顶点的层数是从入度为0的顶点出发的最长路径的边数，同一层的顶点之间没有依赖，可以同时调度
+ * 结果在求出时一次算完，之后修改图不影响已经得到的结果
+ *
+ * @author tuhailong
+ */
+public final class TopologicalSort {
+    // 每个并行任务至少处理的顶点数量
+    private static final int GRAIN = 2048;
+
+    // 拓扑序，有环时为null
+    private final int[] mOrder;
+    // 环上的顶点，mCycle[i] -> mCycle[i + 1]，最后一个顶点指向第一个，无环时为null
+    private final int[] mCycle;
+    // 每个顶点的层数，有环时为null
+    private final int[] mLevels;
+    private final int mLevelCount;
+
+    private TopologicalSort(int[] order, int[] cycle, int[] levels, int levelCount) {
+        this.mOrder = order;
+        this.mCycle = cycle;
+        this.mLevels = levels;
+        this.mLevelCount = levelCount;
+    }
+
+    /**
+     * 三色DFS求拓扑序或者一个环
+     */
+    static TopologicalSort sort(Adjacency g) {
+        Instrumentation.Probe probe = Instrumentation.begin("TopologicalSort.sort");
+        int vLen = g.vertexSize();
+        int[] order = new int[vLen];
+        Traversal traversal = new Traversal(g);
+        int size = traversal.topological(order);
+        if (probe != null) {
+            probe.end(traversal.visitedCount(), traversal);
+        }
+        if (size < 0) {
+            return new TopologicalSort(null, traversal.cycle(), null, 0);
+        }
+        // 逆后序
+        for (int i = 0, j = vLen - 1; i < j; i++, j--) {
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        // 按拓扑序松弛每条边求出最长路径的边数
+        int[] levels = new int[vLen];
+        int count = 0;
+        for (int v : order) {
+            int next = levels[v] + 1;
+            for (int e = g.firstEdge(v); e >= 0; e = g.nextEdge(v, e)) {
+                int w = g.edgeTarget(v, e);
+                if (levels[w] < next) {
+                    levels[w] = next;
+                }
+            }
+            count = Math.max(count, next);
+        }
+        return new TopologicalSort(order, null, levels, count);
+    }
+
+    /**
+     * 按层同步的并行Kahn算法，同一层的顶点在拓扑序中的先后不确定
+     */
+    static TopologicalSort levels(Adjacency g, ForkJoinPool pool) {
+        Instrumentation.Probe probe = Instrumentation.begin("TopologicalSort.levels");
+        int vLen = g.vertexSize();
+        AtomicIntegerArray inDegrees = new AtomicIntegerArray(vLen);
+        pool.invoke(new CountStep(g, inDegrees, 0, vLen));
+
+        // 拓扑序同时是各层的队列，当前层为order[head, tail)
+        int[] order = new int[vLen];
+        int[] levels = new int[vLen];
+        int tail = 0;
+        for (int v = 0; v < vLen; v++) {
+            if (inDegrees.get(v) == 0) {
+                order[tail++] = v;
+            }
+        }
+        int head = 0;
+        int level = 0;
+        int maxFrontier = tail;
+        long edges = 0;
+        while (head < tail) {
+            AtomicInteger next = new AtomicInteger(tail);
+            LevelStep step = new LevelStep(g, inDegrees, level, order, levels, next, head, tail);
+            pool.invoke(step);
+            edges += step.mEdges;
+            head = tail;
+            tail = next.get();
+            maxFrontier = Math.max(maxFrontier, tail - head);
+            level++;
+        }
+        if (probe != null) {
+            probe.end(tail, edges, maxFrontier);
+        }
+        if (tail < vLen) {
+            // 环上的顶点入度永远不会减到0
+            return sort(g);
+        }
+        return new TopologicalSort(order, null, levels, level);
+    }
+
+    /**
+     * 统计[lo, hi)中的顶点的出边给对端顶点带来的入度
+     */
+    private static final class CountStep extends RecursiveAction {
+        private final Adjacency mGraph;
+        private final AtomicIntegerArray mInDegrees;
+        private final int mLo;
+        private final int mHi;
+
+        CountStep(Adjacency graph, AtomicIntegerArray inDegrees, int lo, int hi) {
+            this.mGraph = graph;
+            this.mInDegrees = inDegrees;
+            this.mLo = lo;
+            this.mHi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (mHi - mLo > GRAIN) {
+                int mid = (mLo + mHi) >>> 1;
+                invokeAll(new CountStep(mGraph, mInDegrees, mLo, mid), new CountStep(mGraph, mInDegrees, mid, mHi));
+                return;
+            }
+            Adjacency g = mGraph;
+            for (int v = mLo; v < mHi; v++) {
+                for (int e = g.firstEdge(v); e >= 0; e = g.nextEdge(v, e)) {
+                    mInDegrees.getAndIncrement(g.edgeTarget(v, e));
+                }
+            }
+        }
+    }
+
+    /**
+     * 处理一层中order[lo, hi)的顶点，入度减到0的邻接顶点追加到next之后
+     */
+    private static final class LevelStep extends RecursiveAction {
+        private final Adjacency mGraph;
+        private final AtomicIntegerArray mInDegrees;
+        private final int mLevel;
+        private final int[] mOrder;
+        private final int[] mLevels;
+        private final AtomicInteger mNext;
+        private final int mLo;
+        private final int mHi;
+        // 检查的边的数量
+        long mEdges;
+
+        LevelStep(Adjacency graph, AtomicIntegerArray inDegrees, int level, int[] order, int[] levels,
+                AtomicInteger next, int lo, int hi) {
+            this.mGraph = graph;
+            this.mInDegrees = inDegrees;
+            this.mLevel = level;
+            this.mOrder = order;
+            this.mLevels = levels;
+            this.mNext = next;
+            this.mLo = lo;
+            this.mHi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (mHi - mLo > GRAIN) {
+                int mid = (mLo + mHi) >>> 1;
+                LevelStep left = new LevelStep(mGraph, mInDegrees, mLevel, mOrder, mLevels, mNext, mLo, mid);
+                LevelStep right = new LevelStep(mGraph, mInDegrees, mLevel, mOrder, mLevels, mNext, mid, mHi);
+                invokeAll(left, right);
+                mEdges = left.mEdges + right.mEdges;
+                return;
+            }
+            Adjacency g = mGraph;
+            int[] local = new int[64];
+            int size = 0;
+            long edges = 0;
+            for (int i = mLo; i < mHi; i++) {
+                int v = mOrder[i];
+                for (int e = g.firstEdge(v); e >= 0; e = g.nextEdge(v, e)) {
+                    edges++;
+                    int w = g.edgeTarget(v, e);
+                    if (mInDegrees.decrementAndGet(w) == 0) {
+                        mLevels[w] = mLevel + 1;
+                        if (size == local.length) {
+                            local = Arrays.copyOf(local, size * 2);
+                        }
+                        local[size++] = w;
+                    }
+                }
+            }
+            int pos = mNext.getAndAdd(size);
+            System.arraycopy(local, 0, mOrder, pos, size);
+            mEdges = edges;
+        }
+    }
+
+    /**
+     * 是否有环
+     */
+    public boolean hasCycle() {
+        return mCycle != null;
+    }
+
+    /**
+     * 拓扑序：每条边的起点都排在终点之前，有环时抛出IllegalStateException
+     */
+    public int[] order() {
+        checkAcyclic();
+        return Arrays.copyOf(mOrder, mOrder.length);
+    }
+
+    /**
+     * 有向图中的一个环，环上的每个顶点都有一条边指向下一个顶点，最后一个顶点指向第一个；
+     * 无环时返回空数组
+     */
+    public int[] cycle() {
+        return mCycle == null ? new int[0] : Arrays.copyOf(mCycle, mCycle.length);
+    }
+
+    /**
+     * 顶点数组中序号为v的顶点的层数，有环时抛出IllegalStateException
+     */
+    public int level(int v) {
+        checkAcyclic();
+        return mLevels[v];
+    }
+
+    /**
+     * 所有顶点的层数
+     */
+    public int[] levels() {
+        checkAcyclic();
+        return Arrays.copyOf(mLevels, mLevels.length);
+    }
+
+    /**
+     * 层的数量，即最长路径上的顶点数量
+     */
+    public int levelCount() {
+        checkAcyclic();
+        return mLevelCount;
+    }
+
+    private void checkAcyclic() {
+        if (mCycle != null) {
+            throw new IllegalStateException("graph has a cycle through vertex " + mCycle[0]);
+        }
+    }
+}
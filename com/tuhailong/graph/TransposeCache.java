@@ -0,0 +1,32 @@
+package com.tuhailong.graph;
+
+/**
+ * 按修改版本号缓存的反向邻接表(入边)，图被修改前一直复用，
+ * DirectedGraph和IntDirectedGraph的点对点查询、顶点重排共用
+ *
+ * @author tuhailong
+ */
+final class TransposeCache {
+    private Adjacency mTransposed;
+    // mTransposed对应的图的修改版本号
+    private long mVersion;
+
+    /**
+     * 版本号为version的adjacency的反向邻接表，版本号变化后重新构建
+     */
+    Adjacency get(Adjacency adjacency, long version) {
+        if (mTransposed == null || mVersion != version) {
+            mTransposed = transpose(adjacency);
+            mVersion = version;
+        }
+        return mTransposed;
+    }
+
+    /**
+     * 反向邻接表：每条边反向，顶点序号不变；堆外的邻接表的反向也放在堆外
+     */
+    static Adjacency transpose(Adjacency adjacency) {
+        return adjacency instanceof OffHeapAdjacency
+                ? OffHeapAdjacency.transpose(adjacency) : CompressedSparseRow.transpose(adjacency);
+    }
+}
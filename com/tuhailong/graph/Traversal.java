@@ -0,0 +1,723 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 基于显式栈的图遍历引擎，四种图共用
+ * 用int[]保存顶点栈和每个顶点的边游标代替递归，遍历深度不受线程栈大小限制，
+ * 访问顺序与递归实现完全一致；访问标记和栈来自TraversalContext，构造时开始一次新的遍历，
+ * 同一个Traversal的多次dfs、bfs共用访问标记，遍历过程中不再分配内存
+ *
+ * @author tuhailong
+ */
+final class Traversal {
+    private final Adjacency mGraph;
+    private final TraversalContext mContext;
+    // 访问标记，等于或大于mEpoch为已访问
+    private final int[] mStamps;
+    private final int mEpoch;
+    // 顶点栈
+    private final int[] mStack;
+    // mCursors[i]为栈中第i个顶点下一条待检查的边的游标
+    private final int[] mCursors;
+    // 累计检查的边的数量
+    private long mEdges;
+    // 最大栈深度或最大队列长度
+    private int mMaxFrontier;
+    // topological遇到的环
+    private int[] mCycle;
+
+    Traversal(Adjacency graph) {
+        this(graph, new TraversalContext());
+    }
+
+    Traversal(Adjacency graph, TraversalContext context) {
+        this.mGraph = graph;
+        this.mContext = context;
+        this.mEpoch = context.begin(graph.vertexSize());
+        this.mStamps = context.stamps();
+        this.mStack = context.stack();
+        this.mCursors = context.cursors();
+    }
+
+    /**
+     * 顶点v在本次遍历中是否已访问
+     */
+    boolean visited(int v) {
+        return mStamps[v] >= mEpoch;
+    }
+
+    /**
+     * 与上下文共用的队列，可以作为遍历结果的临时缓冲区
+     */
+    int[] queue() {
+        return mContext.queue();
+    }
+
+    /**
+     * 累计检查的边的数量
+     */
+    long edgesScanned() {
+        return mEdges;
+    }
+
+    /**
+     * 所有遍历中的最大栈深度或最大队列长度
+     */
+    int maxFrontier() {
+        return mMaxFrontier;
+    }
+
+    /**
+     * 本次遍历中已访问的顶点数量，只在需要记录统计时调用，O(V)
+     */
+    int visitedCount() {
+        int vLen = mGraph.vertexSize();
+        int count = 0;
+        for (int v = 0; v < vLen; v++) {
+            count += visited(v) ? 1 : 0;
+        }
+        return count;
+    }
+
+    // 每次遍历结束时把局部计数累加到成员变量，避免在循环中写内存
+    private void record(long edges, int frontier) {
+        mEdges += edges;
+        if (frontier > mMaxFrontier) {
+            mMaxFrontier = frontier;
+        }
+    }
+
+    /**
+     * 从顶点start开始深度优先遍历所有未访问的顶点，按先序依次写入order[size]之后，
+     * 返回写入后order中的顶点数量
+     */
+    int dfs(int start, int[] order, int size) {
+        Adjacency g = mGraph;
+        int[] stamps = mStamps;
+        int epoch = mEpoch;
+        int[] stack = mStack;
+        int[] cursors = mCursors;
+        int top = 0;
+        int maxTop = 0;
+        long edges = 0;
+
+        stamps[start] = epoch;
+        order[size++] = start;
+        stack[0] = start;
+        cursors[0] = g.firstEdge(start);
+        while (top >= 0) {
+            int v = stack[top];
+            int e = cursors[top];
+            if (e < 0) {
+                // 顶点v的所有邻接顶点都已检查完，回溯
+                top--;
+                continue;
+            }
+            cursors[top] = g.nextEdge(v, e);
+            edges++;
+            int w = g.edgeTarget(v, e);
+            if (stamps[w] < epoch) {
+                stamps[w] = epoch;
+                order[size++] = w;
+                stack[++top] = w;
+                cursors[top] = g.firstEdge(w);
+                maxTop = Math.max(maxTop, top);
+            }
+        }
+        record(edges, maxTop + 1);
+        return size;
+    }
+
+    /**
+     * 从顶点start开始深度优先遍历所有未访问的顶点，按后序依次写入order[size]之后，
+     * 返回写入后order中的顶点数量
+     */
+    int postOrder(int start, int[] order, int size) {
+        Adjacency g = mGraph;
+        int[] stamps = mStamps;
+        int epoch = mEpoch;
+        int[] stack = mStack;
+        int[] cursors = mCursors;
+        int top = 0;
+        int maxTop = 0;
+        long edges = 0;
+
+        stamps[start] = epoch;
+        stack[0] = start;
+        cursors[0] = g.firstEdge(start);
+        while (top >= 0) {
+            int v = stack[top];
+            int e = cursors[top];
+            if (e < 0) {
+                // 顶点v的所有邻接顶点都已遍历完，v出栈时即为后序
+                order[size++] = v;
+                top--;
+                continue;
+            }
+            cursors[top] = g.nextEdge(v, e);
+            edges++;
+            int w = g.edgeTarget(v, e);
+            if (stamps[w] < epoch) {
+                stamps[w] = epoch;
+                stack[++top] = w;
+                cursors[top] = g.firstEdge(w);
+                maxTop = Math.max(maxTop, top);
+            }
+        }
+        record(edges, maxTop + 1);
+        return size;
+    }
+
+    /**
+     * 从顶点start开始广度优先遍历所有未访问的顶点，queue同时是辅助队列和访问顺序，
+     * 顶点依次写入queue[rear]之后，返回写入后queue中的顶点数量
+     */
+    int bfs(int start, int[] queue, int rear) {
+        Adjacency g = mGraph;
+        int[] stamps = mStamps;
+        int epoch = mEpoch;
+        int head = rear;
+        int maxFrontier = 1;
+        long edges = 0;
+
+        stamps[start] = epoch;
+        // 入列
+        queue[rear++] = start;
+        while (head != rear) {
+            // 出列
+            int v = queue[head++];
+            for (int e = g.firstEdge(v); e >= 0; e = g.nextEdge(v, e)) {
+                edges++;
+                int w = g.edgeTarget(v, e);
+                if (stamps[w] < epoch) {
+                    stamps[w] = epoch;
+                    // 入列
+                    queue[rear++] = w;
+                }
+            }
+            maxFrontier = Math.max(maxFrontier, rear - head);
+        }
+        record(edges, maxFrontier);
+        return rear;
+    }
+
+    /**
+     * 从顶点start开始深度优先遍历，若遇到一个已访问且不是上一个访问的顶点的邻接点，则认为有环
+     * 栈中顶点的上一个访问的顶点就是它在栈中的前一个顶点，起点的上一个访问的顶点是它自己
+     */
+    boolean hasCycle(int start) {
+        Adjacency g = mGraph;
+        int[] stamps = mStamps;
+        int epoch = mEpoch;
+        int[] stack = mStack;
+        int[] cursors = mCursors;
+        int top = 0;
+        int maxTop = 0;
+        long edges = 0;
+
+        stamps[start] = epoch;
+        stack[0] = start;
+        cursors[0] = g.firstEdge(start);
+        while (top >= 0) {
+            int v = stack[top];
+            int e = cursors[top];
+            if (e < 0) {
+                top--;
+                continue;
+            }
+            cursors[top] = g.nextEdge(v, e);
+            edges++;
+            int w = g.edgeTarget(v, e);
+            if (stamps[w] < epoch) {
+                stamps[w] = epoch;
+                stack[++top] = w;
+                cursors[top] = g.firstEdge(w);
+                maxTop = Math.max(maxTop, top);
+            } else if (w != (top > 0 ? stack[top - 1] : start)) {
+                record(edges, maxTop + 1);
+                return true;
+            }
+        }
+        record(edges, maxTop + 1);
+        return false;
+    }
+
+    /**
+     * 从顶点start开始三色深度优先遍历：访问标记小于时间戳为未访问，等于为在栈中，等于时间戳加1为已完成
+     * 按后序依次写入order[size]之后，返回写入后order中的顶点数量；
+     * 遇到指向栈中顶点的边(回边)即说明有环，此时把环上的顶点按边的方向存入cycle()并返回-1
+     */
+    int topological(int start, int[] order, int size) {
+        Adjacency g = mGraph;
+        int[] stamps = mStamps;
+        int epoch = mEpoch;
+        int[] stack = mStack;
+        int[] cursors = mCursors;
+        int top = 0;
+        int maxTop = 0;
+        long edges = 0;
+
+        stamps[start] = epoch;
+        stack[0] = start;
+        cursors[0] = g.firstEdge(start);
+        while (top >= 0) {
+            int v = stack[top];
+            int e = cursors[top];
+            if (e < 0) {
+                stamps[v] = epoch + 1;
+                order[size++] = v;
+                top--;
+                continue;
+            }
+            cursors[top] = g.nextEdge(v, e);
+            edges++;
+            int w = g.edgeTarget(v, e);
+            if (stamps[w] < epoch) {
+                stamps[w] = epoch;
+                stack[++top] = w;
+                cursors[top] = g.firstEdge(w);
+                maxTop = Math.max(maxTop, top);
+            } else if (stamps[w] == epoch) {
+                // 栈中从w到v的顶点再加上边v->w构成环
+                int from = top;
+                while (stack[from] != w) {
+                    from--;
+                }
+                mCycle = Arrays.copyOfRange(stack, from, top + 1);
+                record(edges, maxTop + 1);
+                return -1;
+            }
+        }
+        record(edges, maxTop + 1);
+        return size;
+    }
+
+    /**
+     * 上一次topological遇到的环，没有则为null
+     */
+    int[] cycle() {
+        return mCycle;
+    }
+
+    /**
+     * 依次从每个未访问的顶点开始topological，按后序把所有顶点写入order，
+     * 返回order中的顶点数量；遇到环时立即停止并返回-1，环由cycle()得到
+     */
+    int topological(int[] order) {
+        int vLen = mGraph.vertexSize();
+        int size = 0;
+        for (int i = 0; i < vLen && size >= 0; i++) {
+            if (!visited(i)) {
+                size = topological(i, order, size);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Pearce的强连通分量算法(节省内存的Tarjan算法)，一次DFS求出所有强连通分量
+     * 1. rindex[v]先记录v的访问序号，之后被更新为v能回溯到的最小序号；
+     * 2. 若v的所有邻接顶点遍历完后rindex[v]没有变小，v就是一个强连通分量的根，
+     *    把辅助栈中序号不小于它的顶点连同v一起标记为同一个分量；
+     * 3. 已完成的分量从vLen - 1开始倒序编号，比任何访问序号都大，因此rindex可以兼作分量标记。
+     * 结果写入ids，ids[v]为顶点v所在分量的id，分量按完成的先后从0开始编号
+     * (即缩点后的逆拓扑序，被指向的分量编号较小)，返回分量的数量
+     */
+    int stronglyConnected(int[] ids) {
+        Adjacency g = mGraph;
+        int vLen = g.vertexSize();
+        int[] stack = mStack;
+        int[] cursors = mCursors;
+        int[] rindex = ids;
+        // root[i]标识栈中第i个顶点目前是否仍可能是分量的根
+        boolean[] root = new boolean[vLen];
+        // 已访问但尚未归入分量的顶点
+        int[] pending = new int[vLen];
+        int sp = 0;
+        int index = 1;
+        int c = vLen - 1;
+        int maxTop = 0;
+        long edges = 0;
+
+        Arrays.fill(rindex, 0);
+        for (int s = 0; s < vLen; s++) {
+            if (rindex[s] != 0) {
+                continue;
+            }
+            int top = 0;
+            stack[0] = s;
+            cursors[0] = g.firstEdge(s);
+            root[0] = true;
+            rindex[s] = index++;
+            while (top >= 0) {
+                int v = stack[top];
+                int e = cursors[top];
+                if (e >= 0) {
+                    cursors[top] = g.nextEdge(v, e);
+                    edges++;
+                    int w = g.edgeTarget(v, e);
+                    if (rindex[w] == 0) {
+                        stack[++top] = w;
+                        cursors[top] = g.firstEdge(w);
+                        root[top] = true;
+                        rindex[w] = index++;
+                        maxTop = Math.max(maxTop, top);
+                    } else if (rindex[w] < rindex[v]) {
+                        rindex[v] = rindex[w];
+                        root[top] = false;
+                    }
+                    continue;
+                }
+                // 顶点v的所有邻接顶点都已遍历完
+                if (root[top]) {
+                    index--;
+                    while (sp > 0 && rindex[v] <= rindex[pending[sp - 1]]) {
+                        rindex[pending[--sp]] = c;
+                        index--;
+                    }
+                    rindex[v] = c;
+                    c--;
+                } else {
+                    pending[sp++] = v;
+                }
+                top--;
+                if (top >= 0 && rindex[v] < rindex[stack[top]]) {
+                    rindex[stack[top]] = rindex[v];
+                    root[top] = false;
+                }
+            }
+        }
+
+        record(edges, vLen == 0 ? 0 : maxTop + 1);
+
+        // 把分量标记c换算成从0开始的分量id
+        for (int v = 0; v < vLen; v++) {
+            rindex[v] = vLen - 1 - rindex[v];
+        }
+        return vLen - 1 - c;
+    }
+
+    /**
+     * 深度优先搜索遍历整个图，返回按先序排列的顶点序号，除结果外不分配内存
+     * operation为记录统计时的操作名；邻接表和邻接矩阵、泛型和int序号的图共用
+     */
+    static int[] dfs(Adjacency g, TraversalContext context, String operation) {
+        Instrumentation.Probe probe = Instrumentation.begin(operation);
+        int vLen = g.vertexSize();
+        Traversal traversal = new Traversal(g, context);
+        // 按先序记录的顶点序号
+        int[] order = traversal.queue();
+        int size = 0;
+        for (int i = 0; i < vLen; i++) {
+            if (!traversal.visited(i)) {
+                size = traversal.dfs(i, order, size);
+            }
+        }
+        if (probe != null) {
+            probe.end(size, traversal);
+        }
+        return Arrays.copyOf(order, size);
+    }
+
+    /**
+     * 广度优先搜索遍历整个图，返回按访问顺序排列的顶点序号，除结果外不分配内存
+     */
+    static int[] bfs(Adjacency g, TraversalContext context, String operation) {
+        Instrumentation.Probe probe = Instrumentation.begin(operation);
+        int vLen = g.vertexSize();
+        Traversal traversal = new Traversal(g, context);
+        // 辅组队列，出列的顺序即为访问顺序
+        int[] queue = traversal.queue();
+        int rear = 0;
+        for (int i = 0; i < vLen; i++) {
+            if (!traversal.visited(i)) {
+                rear = traversal.bfs(i, queue, rear);
+            }
+        }
+        if (probe != null) {
+            probe.end(rear, traversal);
+        }
+        return Arrays.copyOf(queue, rear);
+    }
+
+    /**
+     * 广度优先搜索遍历邻接矩阵表示的整个图，访问标记为位图，
+     * 一次处理矩阵中一行的64位：取出该字中未访问的邻接顶点，按序号从小到大入列
+     */
+    static int[] bfs(BitMatrix matrix, TraversalContext context, String operation) {
+        Instrumentation.Probe probe = Instrumentation.begin(operation);
+        int vLen = matrix.size();
+        int head = 0;
+        int rear = 0;
+        context.begin(vLen);
+        // 辅组队列
+        int[] queue = context.queue();
+        // 顶点访问标记的位图
+        long[] visited = context.bits(0, BitMatrix.wordsFor(vLen));
+        int maxFrontier = 0;
+
+        for (int i = 0; i < vLen; i++) {
+            if ((visited[i >>> 6] & (1L << i)) == 0) {
+                visited[i >>> 6] |= 1L << i;
+                queue[rear++] = i;
+            }
+            while (head != rear) {
+                long[] row = matrix.row(queue[head++]);
+                for (int w = 0; w < row.length; w++) {
+                    long word = row[w] & ~visited[w];
+                    visited[w] |= word;
+                    while (word != 0) {
+                        queue[rear++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+                maxFrontier = Math.max(maxFrontier, rear - head);
+            }
+        }
+        if (probe != null) {
+            // 每个出列的顶点都要检查邻接矩阵中的一整行
+            probe.end(rear, (long)rear * vLen, maxFrontier);
+        }
+        return Arrays.copyOf(queue, rear);
+    }
+
+    /**
+     * 三色DFS判断有向图是否有环，只有指向DFS栈中顶点的边(回边)才构成环
+     */
+    static boolean hasDirectedCycle(Adjacency g, TraversalContext context, String operation) {
+        Instrumentation.Probe probe = Instrumentation.begin(operation);
+        Traversal traversal = new Traversal(g, context);
+        // 后序只用于三色DFS，借用上下文中的队列存放
+        boolean hasCycle = traversal.topological(traversal.queue()) < 0;
+        if (probe != null) {
+            probe.end(traversal.visitedCount(), traversal);
+        }
+        return hasCycle;
+    }
+
+    /**
+     * 判断无向图是否有环，见hasCycle(start)
+     */
+    static boolean hasUndirectedCycle(Adjacency g, TraversalContext context, String operation) {
+        Instrumentation.Probe probe = Instrumentation.begin(operation);
+        int vLen = g.vertexSize();
+        boolean hasCycle = false;
+        Traversal traversal = new Traversal(g, context);
+        for (int i = 0; i < vLen && !hasCycle; i++) {
+            if (!traversal.visited(i)) {
+                // 刚开始没有顶点被访问过，当前正访问和上一个被访问的顶点都设置为起点i
+                hasCycle = traversal.hasCycle(i);
+            }
+        }
+        if (probe != null) {
+            probe.end(traversal.visitedCount(), traversal);
+        }
+        return hasCycle;
+    }
+
+    /**
+     * 把遍历得到的顶点序号换成顶点数组vertexes中对应的顶点
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T[] vertexes(T[] vertexes, int[] order) {
+        Object[] ret = new Object[order.length];
+        for (int i = 0; i < order.length; i++) {
+            ret[i] = vertexes[order[i]];
+        }
+        return (T[])ret;
+    }
+
+    /**
+     * 把顶点依次交给visitor，visitor返回false时终止，返回是否遍历完所有顶点
+     */
+    static boolean forEach(PrimitiveIterator.OfInt it, VertexVisitor visitor) {
+        while (it.hasNext()) {
+            if (!visitor.visit(it.nextInt())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 把顶点迭代器包装为顺序的IntStream，流被消费多少就遍历多少
+     */
+    static IntStream stream(PrimitiveIterator.OfInt it, int vLen) {
+        int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+        return StreamSupport.intStream(Spliterators.spliterator(it, vLen, characteristics), false);
+    }
+
+    /**
+     * 按先序惰性产生顶点的深度优先迭代器，每次nextInt只推进到下一个新发现的顶点
+     */
+    static final class DfsIterator implements PrimitiveIterator.OfInt {
+        private final Adjacency mGraph;
+        private final int mVertexSize;
+        // 访问标记，等于或大于mEpoch为已访问
+        private final int[] mStamps;
+        private final int mEpoch;
+        private final int[] mStack;
+        private final int[] mCursors;
+        private int mTop = -1;
+        // 下一个待检查的起点，单源遍历时为-1
+        private int mRoot;
+        // 预取的下一个顶点，-1表示尚未预取，-2表示遍历结束
+        private int mNext = -1;
+
+        /**
+         * source为-1时遍历整个图，否则只遍历从source可达的顶点
+         */
+        DfsIterator(Adjacency graph, int source, TraversalContext context) {
+            this.mGraph = graph;
+            this.mVertexSize = graph.vertexSize();
+            this.mEpoch = context.begin(mVertexSize);
+            this.mStamps = context.stamps();
+            this.mStack = context.stack();
+            this.mCursors = context.cursors();
+            if (source >= 0) {
+                push(source);
+                mNext = source;
+                mRoot = -1;
+            } else {
+                mRoot = 0;
+            }
+        }
+
+        private void push(int v) {
+            mStamps[v] = mEpoch;
+            mStack[++mTop] = v;
+            mCursors[mTop] = mGraph.firstEdge(v);
+        }
+
+        private int advance() {
+            Adjacency g = mGraph;
+            while (mTop >= 0) {
+                int v = mStack[mTop];
+                int e = mCursors[mTop];
+                if (e < 0) {
+                    mTop--;
+                    continue;
+                }
+                mCursors[mTop] = g.nextEdge(v, e);
+                int w = g.edgeTarget(v, e);
+                if (mStamps[w] < mEpoch) {
+                    push(w);
+                    return w;
+                }
+            }
+            if (mRoot < 0) {
+                return -2;
+            }
+            while (mRoot < mVertexSize && mStamps[mRoot] >= mEpoch) {
+                mRoot++;
+            }
+            if (mRoot == mVertexSize) {
+                return -2;
+            }
+            push(mRoot);
+            return mRoot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (mNext == -1) {
+                mNext = advance();
+            }
+            return mNext != -2;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int v = mNext;
+            mNext = -1;
+            return v;
+        }
+    }
+
+    /**
+     * 按访问顺序惰性产生顶点的广度优先迭代器，只在已发现的顶点取完时才扩展下一个出列的顶点
+     */
+    static final class BfsIterator implements PrimitiveIterator.OfInt {
+        private final Adjacency mGraph;
+        private final int mVertexSize;
+        // 访问标记，等于或大于mEpoch为已访问
+        private final int[] mStamps;
+        private final int mEpoch;
+        // 辅助队列，入列的顺序即为访问顺序
+        private final int[] mQueue;
+        private int mHead;
+        private int mRear;
+        // 已经交给调用方的顶点数量
+        private int mEmitted;
+        // 下一个待检查的起点，单源遍历时为-1
+        private int mRoot;
+
+        /**
+         * source为-1时遍历整个图，否则只遍历从source可达的顶点
+         */
+        BfsIterator(Adjacency graph, int source, TraversalContext context) {
+            this.mGraph = graph;
+            this.mVertexSize = graph.vertexSize();
+            this.mEpoch = context.begin(mVertexSize);
+            this.mStamps = context.stamps();
+            this.mQueue = context.queue();
+            if (source >= 0) {
+                mStamps[source] = mEpoch;
+                mQueue[mRear++] = source;
+                mRoot = -1;
+            } else {
+                mRoot = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            Adjacency g = mGraph;
+            while (mEmitted == mRear) {
+                if (mHead != mRear) {
+                    // 出列
+                    int v = mQueue[mHead++];
+                    for (int e = g.firstEdge(v); e >= 0; e = g.nextEdge(v, e)) {
+                        int w = g.edgeTarget(v, e);
+                        if (mStamps[w] < mEpoch) {
+                            mStamps[w] = mEpoch;
+                            // 入列
+                            mQueue[mRear++] = w;
+                        }
+                    }
+                    continue;
+                }
+                if (mRoot < 0) {
+                    return false;
+                }
+                while (mRoot < mVertexSize && mStamps[mRoot] >= mEpoch) {
+                    mRoot++;
+                }
+                if (mRoot == mVertexSize) {
+                    return false;
+                }
+                mStamps[mRoot] = mEpoch;
+                mQueue[mRear++] = mRoot;
+            }
+            return true;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return mQueue[mEmitted++];
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 可重复使用的遍历上下文：访问标记、栈、队列等与顶点数量成正比的辅助数组
+ * 访问标记是带时间戳的int数组，每次遍历开始时时间戳加2，标记等于或大于当前时间戳的顶点才算已访问，
+ * 因此两次遍历之间不需要清空，O(1)复位；容量不够时按需扩大，之后的遍历不再分配内存
+ * 同一时刻只能用于一次遍历，不是线程安全的，每个线程使用自己的上下文，可以通过local()获取；
+ * 不回调visitor的遍历方法(dfs()、bfs()、hasCycle()等)默认使用local()，
+ * 它随线程一直存在，容量为该线程遍历过的最大的图
+ * 惰性的迭代器和流在被消费完之前占用上下文
+ *
+ * @author tuhailong
+ */
+public final class TraversalContext {
+    private static final ThreadLocal<TraversalContext> sLocal = ThreadLocal.withInitial(TraversalContext::new);
+
+    // 访问标记：小于mEpoch为未访问，等于mEpoch为已访问(三色DFS中为在栈中)，等于mEpoch + 1为已完成
+    private int[] mStamps = new int[0];
+    private int mEpoch;
+    private int[] mStack = new int[0];
+    private int[] mCursors = new int[0];
+    private int[] mQueue = new int[0];
+    // 第二组访问标记和搜索树上的父顶点，只在双向搜索时按需分配；标记与mStamps共用时间戳
+    private int[] mMarks = new int[0];
+    private int[] mParents = new int[0];
+    // 邻接矩阵按位图遍历时用的位图
+    private long[][] mBits = new long[3][0];
+
+    public TraversalContext() {
+    }
+
+    /**
+     * 预先为vertexSize个顶点分配辅助数组
+     */
+    public TraversalContext(int vertexSize) {
+        ensure(vertexSize);
+    }
+
+    /**
+     * 当前线程的遍历上下文
+     */
+    public static TraversalContext local() {
+        return sLocal.get();
+    }
+
+    private void ensure(int vLen) {
+        if (mStamps.length < vLen) {
+            // 新数组全为0，都小于之后的时间戳
+            mStamps = new int[vLen];
+            mStack = new int[vLen];
+            mCursors = new int[vLen];
+            mQueue = new int[vLen];
+        }
+    }
+
+    /**
+     * 开始一次vLen个顶点的遍历，所有顶点变为未访问，返回本次的时间戳
+     */
+    int begin(int vLen) {
+        ensure(vLen);
+        if (mEpoch >= Integer.MAX_VALUE - 2) {
+            // 时间戳用完，清空后重新开始
+            Arrays.fill(mStamps, 0);
+            Arrays.fill(mMarks, 0);
+            mEpoch = 0;
+        }
+        mEpoch += 2;
+        return mEpoch;
+    }
+
+    /**
+     * 开始一次需要两组访问标记的遍历(双向搜索)，两组标记都复位为未访问
+     */
+    int beginPaired(int vLen) {
+        int epoch = begin(vLen);
+        if (mMarks.length < mStamps.length) {
+            mMarks = new int[mStamps.length];
+            mParents = new int[mStamps.length];
+        }
+        return epoch;
+    }
+
+    int epoch() {
+        return mEpoch;
+    }
+
+    int[] stamps() {
+        return mStamps;
+    }
+
+    boolean visited(int v) {
+        return mStamps[v] >= mEpoch;
+    }
+
+    void visit(int v) {
+        mStamps[v] = mEpoch;
+    }
+
+    boolean marked(int v) {
+        return mMarks[v] >= mEpoch;
+    }
+
+    void mark(int v) {
+        mMarks[v] = mEpoch;
+    }
+
+    int[] parents() {
+        return mParents;
+    }
+
+    int[] stack() {
+        return mStack;
+    }
+
+    int[] cursors() {
+        return mCursors;
+    }
+
+    int[] queue() {
+        return mQueue;
+    }
+
+    /**
+     * 第slot个位图，共words个字，已清零
+     */
+    long[] bits(int slot, int words) {
+        long[] bits = mBits[slot];
+        if (bits.length != words) {
+            bits = new long[words];
+            mBits[slot] = bits;
+        } else {
+            Arrays.fill(bits, 0L);
+        }
+        return bits;
+    }
+}
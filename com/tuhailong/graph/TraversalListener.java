@@ -0,0 +1,15 @@
+package com.tuhailong.graph;
+
+/**
+ * 遍历指标的监听器，通过Instrumentation.setListener注册
+ * 回调在执行遍历的线程上同步调用，实现应尽量轻量
+ *
+ * @author tuhailong
+ */
+@FunctionalInterface
+public interface TraversalListener {
+    /**
+     * 一次遍历或连通分量计算结束时回调
+     */
+    void onTraversal(TraversalMetrics metrics);
+}
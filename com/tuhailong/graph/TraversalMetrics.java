@@ -0,0 +1,62 @@
+package com.tuhailong.graph;
+
+/**
+ * 一次遍历或连通分量计算的开销指标
+ *
+ * @author tuhailong
+ */
+public final class TraversalMetrics {
+    // 操作名称，如"DirectedGraph.dfs"
+    private final String mOperation;
+    // 访问的顶点数量
+    private final long mVerticesVisited;
+    // 检查的边的数量
+    private final long mEdgesScanned;
+    // DFS的最大栈深度或BFS的最大前沿(队列)长度
+    private final int mMaxFrontier;
+    // 执行线程分配的字节数，JVM不支持统计时为-1
+    private final long mAllocatedBytes;
+    // 耗时(纳秒)
+    private final long mNanos;
+
+    TraversalMetrics(String operation, long verticesVisited, long edgesScanned,
+            int maxFrontier, long allocatedBytes, long nanos) {
+        this.mOperation = operation;
+        this.mVerticesVisited = verticesVisited;
+        this.mEdgesScanned = edgesScanned;
+        this.mMaxFrontier = maxFrontier;
+        this.mAllocatedBytes = allocatedBytes;
+        this.mNanos = nanos;
+    }
+
+    public String operation() {
+        return mOperation;
+    }
+
+    public long verticesVisited() {
+        return mVerticesVisited;
+    }
+
+    public long edgesScanned() {
+        return mEdgesScanned;
+    }
+
+    public int maxFrontier() {
+        return mMaxFrontier;
+    }
+
+    public long allocatedBytes() {
+        return mAllocatedBytes;
+    }
+
+    public long nanos() {
+        return mNanos;
+    }
+
+    @Override
+    public String toString() {
+        return mOperation + "{vertices=" + mVerticesVisited + ", edges=" + mEdgesScanned
+                + ", maxFrontier=" + mMaxFrontier + ", allocatedBytes=" + mAllocatedBytes
+                + ", nanos=" + mNanos + "}";
+    }
+}
@@ -1,30 +1,27 @@
 package com.tuhailong.graph;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
- * 无向图的邻接链表表示
+ * 无向图的邻接表表示，邻接表以压缩稀疏行(CSR)的形式存储
  * @author tuhailong
  */
 public class UndirectedGraph<T> {
-    // 顶点
-    private class VertexNode<E> {
-        // 顶点信息
-        E info;
-        // 指向第一条依附该顶点的边
-        AdjacentNode firstEdge;
-    }
-
-    // 顶点对应的邻接表的结点
-    private class AdjacentNode {
-        // 该边的对端顶点在顶点数组中的位置
-        int vexIdx;
-        // 指向下一条边的指针
-        AdjacentNode nextEdge;
-    }
-
-    // 顶点数组
-    private VertexNode<T>[] mVertexes;
+    // 顶点数组，容量可能大于顶点数量
+    private T[] mVertexes;
+    // 顶点数量
+    private int mVertexSize;
+    // 顶点信息到顶点序号的字典
+    private VertexDictionary<T> mDictionary;
+    // 邻接表，每条无向边存为两条方向相反的有向边：
+    // 构建后为只读的CSR，第一次修改时转换为可修改的DynamicAdjacency
+    private Adjacency mAdjacency;
+    // 修改版本号，每次添加顶点、添加或删除边后加1
+    private long mVersion;
 
     @SuppressWarnings("unchecked")
     UndirectedGraph(T[] vexs, T[][] edges) {
@@ -34,13 +31,14 @@ public class UndirectedGraph<T> {
         int eLen = edges.length;
 
         // 顶点赋初值
-        mVertexes = (VertexNode<T>[])new VertexNode[vLen];
+        mVertexes = (T[])new Object[vLen];
         for (int i = 0; i < vLen; i++) {
-            mVertexes[i] = new VertexNode<T>();
-            mVertexes[i].info = vexs[i];
-            mVertexes[i].firstEdge = null;
+            mVertexes[i] = vexs[i];
         }
+        mVertexSize = vLen;
+        mDictionary = VertexDictionary.of(vexs);
 
+        CompressedSparseRow.Builder builder = new CompressedSparseRow.Builder(vLen, eLen * 2);
         for (int i = 0; i < eLen; i++) {
             // 边edges[i]的起始顶点在mVertexes[i]的位置
             int sp = index(edges[i][0]);
@@ -49,164 +47,207 @@ public class UndirectedGraph<T> {
             if (sp == -1 || ep == -1) {
                 continue;
             }
-            // 初始化上sNode
-            AdjacentNode sNode = new AdjacentNode();
-            sNode.vexIdx = ep;
-            // 将sNode链接到"顶点sp所指向的链表的末尾"
-            if (mVertexes[sp].firstEdge == null) {
-                mVertexes[sp].firstEdge = sNode;
-            } else {
-                linkLast(mVertexes[sp].firstEdge, sNode);
-            }
-
-            // 初始化上sNode
-            AdjacentNode eNode = new AdjacentNode();
-            eNode.vexIdx = sp;
-            // 将eNode链接到"顶点ep所指向的链表的末尾"
-            if (mVertexes[ep].firstEdge == null) {
-                mVertexes[ep].firstEdge = eNode;
-            } else {
-                linkLast(mVertexes[ep].firstEdge, eNode);
-            }
+            builder.addEdge(sp, ep);
+            builder.addEdge(ep, sp);
         }
+        mAdjacency = builder.build();
+    }
+
+    UndirectedGraph(T[] vertexes, int vertexSize, VertexDictionary<T> dictionary, Adjacency adjacency) {
+        mVertexes = vertexes;
+        mVertexSize = vertexSize;
+        mDictionary = dictionary;
+        mAdjacency = adjacency;
     }
 
     /**
-     * 将node节点链接到list的尾部
+     * 邻接关系的只读视图
      */
-    private void linkLast(AdjacentNode list, AdjacentNode node) {
-        AdjacentNode p = list;
-        while (p.nextEdge != null) {
-            p = p.nextEdge;
-        }
-        p.nextEdge = node;
+    Adjacency adjacency() {
+        return mAdjacency;
+    }
+
+    /**
+     * 顶点信息到顶点序号的字典
+     */
+    VertexDictionary<T> dictionary() {
+        return mDictionary;
     }
 
     /**
      * 返回item在mVertexes中的位置
      */
     public int index(T item) {
-        for (int i = mVertexes.length - 1; i >= 0; i--) {
-            if (item == mVertexes[i].info) {
-                return i;
-            }
-        }
-        return -1;
+        return mDictionary.index(item);
     }
 
     /**
-     * 深度优先搜索遍历图的递归实现
+     * 深度优先搜索遍历图
      */
-    private void dfs(boolean[] visited, int i, ArrayList<T> list) {
-        visited[i] = true;
-        list.add(mVertexes[i].info);
+    public T[] dfs() {
+        return dfs(TraversalContext.local());
+    }
 
-        AdjacentNode edge = mVertexes[i].firstEdge;
-        while (edge != null) {
-            if (!visited[edge.vexIdx]) {
-                dfs(visited, edge.vexIdx, list);
-            }
-            edge = edge.nextEdge;
-        }
+    /**
+     * 用context中的访问标记和栈深度优先搜索遍历图，除结果外不分配内存
+     */
+    public T[] dfs(TraversalContext context) {
+        return Traversal.vertexes(mVertexes, Traversal.dfs(mAdjacency, context, "UndirectedGraph.dfs"));
     }
 
     /**
-     * 深度优先搜索遍历图
+     * 广度优先搜索遍历图
      */
-    @SuppressWarnings("unchecked")
-    public T[] dfs() {
-        ArrayList<T> list = new ArrayList<>();
+    public T[] bfs() {
+        return bfs(TraversalContext.local());
+    }
 
-        int vLen = mVertexes.length;
-        boolean[] visited = new boolean[vLen];
+    /**
+     * 用context中的访问标记和队列广度优先搜索遍历图，除结果外不分配内存
+     */
+    public T[] bfs(TraversalContext context) {
+        return Traversal.vertexes(mVertexes, Traversal.bfs(mAdjacency, context, "UndirectedGraph.bfs"));
+    }
 
-        for (int i = 0; i < vLen; i++) {
-            if (!visited[i]) {
-                dfs(visited, i, list);
-            }
-        }
+    /**
+     * 深度优先搜索遍历整个图，按先序把顶点序号依次交给visitor，
+     * visitor返回false时立即终止，返回是否遍历完所有顶点
+     */
+    public boolean dfs(VertexVisitor visitor) {
+        return dfs(visitor, new TraversalContext());
+    }
 
-        System.out.println("DFS: " + list.toString());
-        return (T[])list.toArray();
+    /**
+     * 用context中的辅助数组遍历，visitor中不能再用同一个context遍历
+     */
+    public boolean dfs(VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.DfsIterator(mAdjacency, -1, context), visitor);
     }
 
     /**
-     * 广度优先搜索遍历图
+     * 从顶点数组中序号为source的顶点开始深度优先搜索，只访问从它可达的顶点
      */
-    @SuppressWarnings("unchecked")
-    public T[] bfs() {
-        ArrayList<T> list = new ArrayList<>();
+    public boolean dfs(int source, VertexVisitor visitor) {
+        return dfs(source, visitor, new TraversalContext());
+    }
 
-        int vLen = mVertexes.length;
-        int head = 0;
-        int rear = 0;
-        // 辅组队列
-        int[] queue = new int[vLen];
-        // 顶点访问标记
-        boolean[] visited = new boolean[vLen];
+    public boolean dfs(int source, VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.DfsIterator(mAdjacency, source, context), visitor);
+    }
 
-        for (int i = 0; i < vLen; i++) {
-            if (!visited[i]) {
-                visited[i] = true;
-                list.add(mVertexes[i].info);
-                // 入列
-                queue[rear++] = i;
-            }
-            while (head != rear) {
-                // 出列
-                int j = queue[head++];
-                AdjacentNode node = mVertexes[j].firstEdge;
-                while (node != null) {
-                    int k = node.vexIdx;
-                    if (!visited[k]) {
-                        visited[k] = true;
-                        list.add(mVertexes[k].info);
-                        // 入列
-                        queue[rear++] = k;
-                    }
-                    node = node.nextEdge;
-                }
-            }
-        }
+    /**
+     * 广度优先搜索遍历整个图，按访问顺序把顶点序号依次交给visitor，
+     * visitor返回false时立即终止，返回是否遍历完所有顶点
+     */
+    public boolean bfs(VertexVisitor visitor) {
+        return bfs(visitor, new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组遍历，visitor中不能再用同一个context遍历
+     */
+    public boolean bfs(VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.BfsIterator(mAdjacency, -1, context), visitor);
+    }
+
+    /**
+     * 从顶点数组中序号为source的顶点开始广度优先搜索，只访问从它可达的顶点
+     */
+    public boolean bfs(int source, VertexVisitor visitor) {
+        return bfs(source, visitor, new TraversalContext());
+    }
+
+    public boolean bfs(int source, VertexVisitor visitor, TraversalContext context) {
+        return Traversal.forEach(new Traversal.BfsIterator(mAdjacency, source, context), visitor);
+    }
+
+    /**
+     * 按深度优先的先序惰性产生顶点序号的流，只遍历被消费的部分
+     */
+    public IntStream dfsStream() {
+        return dfsStream(new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组产生流，流被消费完之前不能再用同一个context遍历
+     */
+    public IntStream dfsStream(TraversalContext context) {
+        return Traversal.stream(new Traversal.DfsIterator(mAdjacency, -1, context), mVertexSize);
+    }
 
-        System.out.println("BFS: " + list.toString());
-        return (T[])list.toArray();
+    /**
+     * 按广度优先的访问顺序惰性产生顶点序号的流，只遍历被消费的部分
+     */
+    public IntStream bfsStream() {
+        return bfsStream(new TraversalContext());
+    }
+
+    /**
+     * 用context中的辅助数组产生流，流被消费完之前不能再用同一个context遍历
+     */
+    public IntStream bfsStream(TraversalContext context) {
+        return Traversal.stream(new Traversal.BfsIterator(mAdjacency, -1, context), mVertexSize);
     }
 
    /**
      * 判断无向图是否有环
      */
     public boolean hasCycle() {
-        boolean[] hasCycle = new boolean[1];
-        int vLen = mVertexes.length;
-        boolean[] visited = new boolean[vLen];
-        for (int i = 0; i < vLen; i++) {
-            if (!visited[i]) {
-                // 1.刚开始没有顶点被访问过，当前正访问和上一个被访问的顶点都设置为起点i;
-                // 2.当dfsForCycle被递归调用一次后，当前正访问的参数v是i的一个邻接点，而上一个被访问的参数u是i.
-                dfsForCycle(visited, i, i, hasCycle);
-            }
-        }
-        System.out.println("current graph does " + (hasCycle[0] ? "" : "not ") + "have cycle");
-        return hasCycle[0];
-    }
-
-    // v表示当前正访问的顶点，u表示上一个访问的顶点
-    private void dfsForCycle(boolean[] visited, int v, int u, boolean[] hasCycle) {
-        // 设置(顶点数组中序号为v的顶点)顶点v的已访问标记
-        visited[v] = true;
-        // 遍历(顶点数组中序号为v的顶点)顶点v的所有邻接顶点
-        AdjacentNode node = mVertexes[v].firstEdge;
-        while (node != null) {
-            int w = node.vexIdx;
-            if (!visited[w]) {
-                dfsForCycle(visited, w, v, hasCycle);
-            } else if (w != u) {
-                hasCycle[0] = true;
-                break;
-            }
-            node = node.nextEdge;
+        return hasCycle(TraversalContext.local());
+    }
+
+    public boolean hasCycle(TraversalContext context) {
+        return Traversal.hasUndirectedCycle(mAdjacency, context, "UndirectedGraph.hasCycle");
+    }
+
+    /**
+     * 双向广度优先搜索从顶点数组中序号为source的顶点到序号为target的顶点的最短路径(边数最少)，
+     * 返回路径上的所有顶点序号，不可达则返回空数组
+     */
+    public int[] shortestPath(int source, int target) {
+        return shortestPath(source, target, TraversalContext.local());
+    }
+
+    /**
+     * 同shortestPath(source, target)，两侧的访问标记、父顶点和队列使用context，
+     * 时间只与搜索到的顶点和边成正比
+     */
+    public int[] shortestPath(int source, int target, TraversalContext context) {
+        return BidirectionalBfs.path(mAdjacency, mAdjacency, source, target, context);
+    }
+
+    /**
+     * 逆Cuthill-McKee顺序，使边的两个端点的序号尽量接近
+     */
+    public VertexOrdering reverseCuthillMcKee() {
+        return VertexOrdering.reverseCuthillMcKee(mAdjacency, null);
+    }
+
+    /**
+     * 按度从大到小的顺序
+     */
+    public VertexOrdering degreeOrdering() {
+        return VertexOrdering.degreeDescending(mAdjacency, null);
+    }
+
+    /**
+     * 从度最大的顶点开始的广度优先顺序
+     */
+    public VertexOrdering bfsOrdering() {
+        return VertexOrdering.bfs(mAdjacency, null);
+    }
+
+    /**
+     * 按ordering重新编号得到的新图，原图不变：新图中序号为i的顶点是原图中序号为ordering.original(i)的顶点，
+     * 每个顶点的邻接顶点按新序号升序排列，邻接表放在堆上
+     */
+    public UndirectedGraph<T> reorder(VertexOrdering ordering) {
+        if (ordering.size() != mVertexSize) {
+            throw new IllegalArgumentException("ordering size " + ordering.size() + " != vertex size " + mVertexSize);
         }
+        T[] vertexes = ordering.relabel(mVertexes);
+        return new UndirectedGraph<T>(vertexes, mVertexSize, VertexDictionary.of(vertexes),
+                ordering.relabel(mAdjacency));
     }
 
     /**
@@ -214,36 +255,140 @@ public class UndirectedGraph<T> {
      * @return
      */
     public int vertexSize() {
-        return mVertexes.length;
+        return mVertexSize;
     }
 
     /**
      * 获取顶点数组中序号为v的顶点的所有连接顶点
      */
     public int[] adjacentVertexIndexes(int v) {
-        ArrayList<Integer> list = new ArrayList<>();
+        return mAdjacency.adjacent(v);
+    }
 
-        AdjacentNode node = mVertexes[v].firstEdge;
-        while (node != null) {
-            list.add(node.vexIdx);
-            node = node.nextEdge;
+    /**
+     * 添加一个没有边的顶点，返回它在顶点数组中的序号，已有顶点的序号保持不变
+     */
+    public int addVertex(T info) {
+        DynamicAdjacency adjacency = mutable();
+        if (mVertexSize == mVertexes.length) {
+            mVertexes = Arrays.copyOf(mVertexes, Math.max(4, mVertexSize + (mVertexSize >> 1)));
         }
+        int v = adjacency.addVertex();
+        mVertexes[v] = info;
+        mDictionary.put(info, v);
+        mVertexSize++;
+        mVersion++;
+        return v;
+    }
+
+    /**
+     * 添加一条由顶点数组中序号为sp的顶点指向序号为ep的顶点的边，均摊O(1)
+     */
+    public void addEdge(int sp, int ep) {
+        DynamicAdjacency adjacency = mutable();
+        adjacency.addEdge(sp, ep);
+        adjacency.addEdge(ep, sp);
+        mVersion++;
+    }
 
-        int[] ret = new int[list.size()];
-        for (int i = 0; i < list.size(); i++) {
-            ret[i] = list.get(i);
+    /**
+     * 添加一条由顶点sp指向顶点ep的边
+     */
+    public void addEdge(T sp, T ep) {
+        addEdge(indexOrThrow(sp), indexOrThrow(ep));
+    }
+
+    /**
+     * 删除一条由顶点数组中序号为sp的顶点指向序号为ep的顶点的边，返回是否删除成功
+     * 需要在sp的邻接顶点中查找，为O(sp的出度)
+     */
+    public boolean removeEdge(int sp, int ep) {
+        DynamicAdjacency adjacency = mutable();
+        if (!adjacency.removeEdge(sp, ep)) {
+            return false;
         }
-        return ret;
+        adjacency.removeEdge(ep, sp);
+        mVersion++;
+        return true;
+    }
+
+    /**
+     * 删除一条由顶点sp指向顶点ep的边，返回是否删除成功
+     */
+    public boolean removeEdge(T sp, T ep) {
+        return removeEdge(indexOrThrow(sp), indexOrThrow(ep));
+    }
+
+    /**
+     * 把邻接表重新压缩为只读的CSR，适合在批量修改结束后、大量遍历之前调用
+     */
+    public void compact() {
+        mAdjacency = CompressedSparseRow.copyOf(mAdjacency);
+    }
+
+    /**
+     * 把图写入二进制文件file，顶点须全部是Integer、Long、Character或String中的同一种
+     */
+    public void save(Path file) throws IOException {
+        GraphFile.write(file, mVertexes, mVertexSize, mAdjacency, false);
+    }
+
+    /**
+     * 读取由save写入的文件：只解码顶点表，邻接表直接映射文件，不复制到Java堆中；
+     * 第一次修改时才会把邻接表复制为可修改的形式
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> UndirectedGraph<T> load(Path file) throws IOException {
+        GraphFile graphFile = GraphFile.read(file, false);
+        T[] vertexes = (T[])graphFile.vertexes;
+        return of(vertexes, VertexDictionary.of(vertexes), graphFile.adjacency);
+    }
+
+    /**
+     * 由已经建好的顶点数组、字典和邻接表构造图，不复制
+     */
+    static <T> UndirectedGraph<T> of(T[] vertexes, VertexDictionary<T> dictionary, Adjacency adjacency) {
+        return new UndirectedGraph<T>(vertexes, vertexes.length, dictionary, adjacency);
+    }
+
+    /**
+     * 把邻接表移到Java堆外：偏移为64位，边的数量不受Java数组长度的限制，
+     * 遍历、连通分量等算法不受影响；之后的修改仍会把邻接表复制回堆上
+     */
+    public void storeOffHeap() {
+        mAdjacency = OffHeapAdjacency.copyOf(mAdjacency);
+    }
+
+    /**
+     * 修改版本号，每次添加顶点、添加或删除边后加1
+     */
+    public long version() {
+        return mVersion;
+    }
+
+    private int indexOrThrow(T item) {
+        int v = index(item);
+        if (v == -1) {
+            throw new IllegalArgumentException("unknown vertex " + item);
+        }
+        return v;
+    }
+
+    // 第一次修改时把只读的邻接表转换为可修改的形式
+    private DynamicAdjacency mutable() {
+        if (!(mAdjacency instanceof DynamicAdjacency)) {
+            mAdjacency = DynamicAdjacency.copyOf(mAdjacency);
+        }
+        return (DynamicAdjacency)mAdjacency;
     }
 
     public void dump() {
         System.out.printf("List Undirected Graph:\n");
-        for (int i = 0; i < mVertexes.length; i++) {
-            System.out.printf("%d(%c): ", i, mVertexes[i].info);
-            AdjacentNode node = mVertexes[i].firstEdge;
-            while (node != null) {
-                System.out.printf("%d(%c) ", node.vexIdx, mVertexes[node.vexIdx].info);
-                node = node.nextEdge;
+        for (int i = 0; i < mVertexSize; i++) {
+            System.out.printf("%d(%c): ", i, mVertexes[i]);
+            for (int e = mAdjacency.firstEdge(i); e >= 0; e = mAdjacency.nextEdge(i, e)) {
+                int w = mAdjacency.edgeTarget(i, e);
+                System.out.printf("%d(%c) ", w, mVertexes[w]);
             }
             System.out.printf("\n");
         }
@@ -256,43 +401,99 @@ public class UndirectedGraph<T> {
      * 4.连通分量的数量范围为[1, 图的顶点数量]
      */
     public static class ConnectedComponent<T> {
-        // 标识顶点是否已经被访问过
-        private boolean[] mVisited;
-        // 给每个顶点标识一个id，id相同的顶点构成一个联通分量
+        // 连通关系存放在并查集中，添加边时只需合并两个顶点所在的集合
+        private UnionFind mSets;
+        // 给每个顶点标识一个id，id相同的顶点构成一个联通分量；
+        // 按需计算，合并了两个不同的连通分量后失效
         private int[] mIds;
-        // 连通分量的个数
-        private int mCount;
+        private boolean mIdsValid;
 
         public ConnectedComponent(UndirectedGraph<T> graph) {
+            Instrumentation.Probe probe = Instrumentation.begin("UndirectedGraph.ConnectedComponent");
+            Adjacency adjacency = graph.mAdjacency;
             int vLen = graph.vertexSize();
-            mVisited = new boolean[vLen];
-            mIds = new int[vLen];
-            mCount = 0;
-            for (int i = 0; i < vLen; i++) {
-                if (!mVisited[i]) {
-                    // 一次dfs调用就是一个连通分量
-                    dfs(graph, i);
-                    mCount += 1;
+            mSets = new UnionFind(vLen);
+            long edges = 0;
+            for (int v = 0; v < vLen; v++) {
+                for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                    int w = adjacency.edgeTarget(v, e);
+                    // 每条无向边存为两条有向边，只需合并一次
+                    if (w < v) {
+                        mSets.union(v, w);
+                    }
+                    edges++;
                 }
             }
+            if (probe != null) {
+                probe.end(vLen, edges, 0);
+            }
         }
 
-        private void dfs(UndirectedGraph<T> graph, int v) {
-            // 标识刚访问到的顶点v
-            mVisited[v] = true;
-            mIds[v] = mCount;
-            // 遍历顶点v的所有没有被访问过的邻接点
-            for (int w : graph.adjacentVertexIndexes(v)) {
-                if (!mVisited[w]) {
-                    dfs(graph, w);
+        /**
+         * 并行计算连通分量：按起始顶点把边分给pool中的多个线程，合并到同一个无锁并查集中，
+         * 得到的id与单线程计算的结果相同
+         */
+        public ConnectedComponent(UndirectedGraph<T> graph, ForkJoinPool pool) {
+            Instrumentation.Probe probe = Instrumentation.begin("UndirectedGraph.ConnectedComponent");
+            Adjacency adjacency = graph.mAdjacency;
+            int vLen = graph.vertexSize();
+            ConcurrentUnionFind sets = new ConcurrentUnionFind(vLen);
+            sets.unionAll(adjacency, pool);
+            int[] roots = new int[vLen];
+            sets.roots(roots, pool);
+            mSets = UnionFind.ofRoots(roots);
+            // 根元素是连通分量中序号最小的顶点，按顶点序号从小到大扫描时根元素总是先被编号
+            int count = 0;
+            for (int v = 0; v < vLen; v++) {
+                roots[v] = roots[v] == v ? count++ : roots[roots[v]];
+            }
+            mIds = roots;
+            mIdsValid = true;
+            if (probe != null) {
+                long edges = 0;
+                for (int v = 0; v < vLen; v++) {
+                    edges += adjacency.degree(v);
                 }
+                probe.end(vLen, edges, 0);
             }
         }
 
         /**
-         * 顶点数组中序号为v的顶点的id
+         * 图中添加了一个顶点后调用，新顶点单独构成一个连通分量，返回它的序号
+         */
+        public int addVertex() {
+            mIdsValid = false;
+            return mSets.add();
+        }
+
+        /**
+         * 图中添加了一条连接顶点v和顶点w的边后调用，均摊时间近似O(1)，
+         * 返回v和w在添加前是否属于不同的连通分量
+         * 并查集不支持拆分，删除边后需要重新构造ConnectedComponent
+         */
+        public boolean addEdge(int v, int w) {
+            if (mSets.union(v, w)) {
+                mIdsValid = false;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 顶点数组中序号为v的顶点的id，id的范围为[0, count())，
+         * 按连通分量中最小的顶点序号从小到大编号
          */
         public int id(int v) {
+            if (!mIdsValid) {
+                if (mIds == null || mIds.length < mSets.size()) {
+                    mIds = new int[mSets.size()];
+                }
+                mSets.labels(mIds);
+                mIdsValid = true;
+            }
+            if (v >= mSets.size()) {
+                throw new IndexOutOfBoundsException("vertex " + v);
+            }
             return mIds[v];
         }
 
@@ -300,14 +501,14 @@ public class UndirectedGraph<T> {
          * 顶点数组中序号为v的顶点和序号为w的顶点是否是连通的
          */
         public boolean connected(int v, int w) {
-            return id(v) == id(w);
+            return mSets.connected(v, w);
         }
 
         /**
          * 连通分量的数量
          */
         public int count() {
-            return mCount;
+            return mSets.count();
         }
 
         /**
@@ -325,9 +526,9 @@ public class UndirectedGraph<T> {
 
         UndirectedGraph<Character> graph = new UndirectedGraph<Character>(vexs, edges);
         graph.dump();
-        graph.dfs();
-        graph.bfs();
-        graph.hasCycle();
+        System.out.println("DFS: " + Arrays.toString(graph.dfs()));
+        System.out.println("BFS: " + Arrays.toString(graph.bfs()));
+        System.out.println("current graph does " + (graph.hasCycle() ? "" : "not ") + "have cycle");
 
         ConnectedComponent<Character> cc = new ConnectedComponent<>(graph);
         boolean connected = cc.connected(graph.index('A'), graph.index('G'));
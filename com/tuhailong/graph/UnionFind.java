@@ -0,0 +1,142 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 并查集(不相交集合森林)，按秩合并并在查找时做路径减半，
+ * 单次操作的均摊时间为O(α(n))，可以随时添加新元素
+ *
+ * @author tuhailong
+ */
+public class UnionFind {
+    // 每个元素的父元素，根元素的父元素是它自己
+    private int[] mParents;
+    // 每个根元素所在树的秩(高度的上界)
+    private byte[] mRanks;
+    // 元素数量
+    private int mSize;
+    // 集合数量
+    private int mCount;
+
+    public UnionFind(int size) {
+        mParents = new int[Math.max(size, 4)];
+        mRanks = new byte[mParents.length];
+        for (int i = 0; i < size; i++) {
+            mParents[i] = i;
+        }
+        mSize = size;
+        mCount = size;
+    }
+
+    /**
+     * 由每个元素的根元素构造并查集，要求roots[roots[x]] == roots[x]，
+     * 构造出的每棵树高度不超过1
+     */
+    static UnionFind ofRoots(int[] roots) {
+        int size = roots.length;
+        UnionFind ret = new UnionFind(0);
+        ret.mParents = new int[Math.max(size, 4)];
+        ret.mRanks = new byte[ret.mParents.length];
+        System.arraycopy(roots, 0, ret.mParents, 0, size);
+        for (int x = 0; x < size; x++) {
+            int root = roots[x];
+            if (root == x) {
+                ret.mCount++;
+            } else {
+                ret.mRanks[root] = 1;
+            }
+        }
+        ret.mSize = size;
+        return ret;
+    }
+
+    /**
+     * 添加一个只包含自己的集合，返回新元素的序号
+     */
+    public int add() {
+        if (mSize == mParents.length) {
+            int newLen = mSize + (mSize >> 1);
+            mParents = Arrays.copyOf(mParents, newLen);
+            mRanks = Arrays.copyOf(mRanks, newLen);
+        }
+        mParents[mSize] = mSize;
+        mCount++;
+        return mSize++;
+    }
+
+    /**
+     * 返回元素x所在集合的根元素
+     */
+    public int find(int x) {
+        if (x < 0 || x >= mSize) {
+            throw new IndexOutOfBoundsException("element " + x);
+        }
+        int[] parents = mParents;
+        while (parents[x] != x) {
+            // 路径减半：让x指向祖父元素
+            parents[x] = parents[parents[x]];
+            x = parents[x];
+        }
+        return x;
+    }
+
+    /**
+     * 合并x和y所在的集合，返回合并前它们是否属于不同的集合
+     */
+    public boolean union(int x, int y) {
+        int rx = find(x);
+        int ry = find(y);
+        if (rx == ry) {
+            return false;
+        }
+        if (mRanks[rx] < mRanks[ry]) {
+            mParents[rx] = ry;
+        } else if (mRanks[rx] > mRanks[ry]) {
+            mParents[ry] = rx;
+        } else {
+            mParents[ry] = rx;
+            mRanks[rx]++;
+        }
+        mCount--;
+        return true;
+    }
+
+    /**
+     * x和y是否属于同一个集合
+     */
+    public boolean connected(int x, int y) {
+        return find(x) == find(y);
+    }
+
+    /**
+     * 元素数量
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * 集合数量
+     */
+    public int count() {
+        return mCount;
+    }
+
+    /**
+     * 给每个集合一个[0, count())中的编号，按集合中最小元素的先后顺序编号，
+     * 结果写入labels并返回
+     */
+    public int[] labels(int[] labels) {
+        int[] rootLabels = new int[mSize];
+        Arrays.fill(rootLabels, -1);
+        int next = 0;
+        for (int x = 0; x < mSize; x++) {
+            int root = find(x);
+            if (rootLabels[root] == -1) {
+                rootLabels[root] = next++;
+            }
+            labels[x] = rootLabels[root];
+        }
+        return labels;
+    }
+}
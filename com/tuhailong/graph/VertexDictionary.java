@@ -0,0 +1,406 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 顶点字典：将顶点信息映射到它在顶点数组中的序号
+ * 采用开放定址(线性探测)哈希表，按equals/hashCode比较，查找的期望时间为O(1)；
+ * 顶点全部是Integer或Long时使用基本类型的特化实现，避免调用equals和拆箱比较
+ *
+ * @author tuhailong
+ */
+public class VertexDictionary<T> {
+    // 空槽位标记
+    static final int EMPTY = -1;
+    // 哈希表的最小容量，装载因子不超过1/2
+    private static final int MIN_CAPACITY = 16;
+
+    // 键数组
+    private Object[] mKeys;
+    // 与键对应的顶点序号，EMPTY表示空槽位
+    int[] mIds;
+    // 已存放的键的数量
+    int mSize;
+    // 下一个由intern分配的顶点序号
+    int mNextId;
+
+    public VertexDictionary() {
+        this(MIN_CAPACITY);
+    }
+
+    public VertexDictionary(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * 根据顶点数组建立字典，vexs[i]映射为i；
+     * 若顶点重复，保留序号最大的那个(与按序号逆序线性查找的结果一致)
+     * 顶点全部是Integer(或全部是Long)时返回特化的字典；之后查找其他类型的键返回-1，
+     * 添加其他类型的键时存入字典内部的通用哈希表，不会抛出ClassCastException
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> VertexDictionary<T> of(T[] vexs) {
+        VertexDictionary<?> dict;
+        if (allInstanceOf(vexs, Integer.class)) {
+            dict = new OfInt(vexs.length);
+        } else if (allInstanceOf(vexs, Long.class)) {
+            dict = new OfLong(vexs.length);
+        } else {
+            dict = new VertexDictionary<T>(vexs.length);
+        }
+        VertexDictionary<T> ret = (VertexDictionary<T>)dict;
+        for (int i = 0; i < vexs.length; i++) {
+            ret.put(vexs[i], i);
+        }
+        return ret;
+    }
+
+    private static boolean allInstanceOf(Object[] vexs, Class<?> clazz) {
+        if (vexs.length == 0) {
+            return false;
+        }
+        for (Object o : vexs) {
+            if (o == null || o.getClass() != clazz) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int capacityFor(int expectedSize) {
+        int cap = MIN_CAPACITY;
+        while (cap < (long)expectedSize * 2 && cap < (1 << 30)) {
+            cap <<= 1;
+        }
+        return cap;
+    }
+
+    void allocate(int capacity) {
+        mKeys = new Object[capacity];
+        mIds = new int[capacity];
+        Arrays.fill(mIds, EMPTY);
+    }
+
+    static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int mix(long h) {
+        return mix((int)(h ^ (h >>> 32)));
+    }
+
+    /**
+     * 已存放的键的数量
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * 返回item对应的顶点序号，不存在则返回-1
+     */
+    public int index(T item) {
+        return indexOfKey(item);
+    }
+
+    // 按equals/hashCode查找，特化的字典覆盖它以直接比较基本类型的键；参数为Object，
+    // 键的类型与T不符时不会因泛型的桥方法而抛出ClassCastException
+    int indexOfKey(Object item) {
+        int mask = mIds.length - 1;
+        int slot = mix(Objects.hashCode(item)) & mask;
+        while (mIds[slot] != EMPTY) {
+            if (Objects.equals(item, mKeys[slot])) {
+                return mIds[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * 将item映射为id，item已存在时覆盖原来的序号
+     */
+    public void put(T item, int id) {
+        putKey(item, id);
+    }
+
+    void putKey(Object item, int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("id " + id);
+        }
+        ensureCapacity();
+        int mask = mIds.length - 1;
+        int slot = mix(Objects.hashCode(item)) & mask;
+        while (mIds[slot] != EMPTY) {
+            if (Objects.equals(item, mKeys[slot])) {
+                mIds[slot] = id;
+                mNextId = Math.max(mNextId, id + 1);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        mKeys[slot] = item;
+        mIds[slot] = id;
+        mSize++;
+        mNextId = Math.max(mNextId, id + 1);
+    }
+
+    /**
+     * 返回item对应的顶点序号，不存在时为它分配一个新的序号
+     */
+    public int intern(T item) {
+        int id = index(item);
+        if (id == -1) {
+            id = mNextId;
+            put(item, id);
+        }
+        return id;
+    }
+
+    // 装载因子超过1/2时容量翻倍并重新散列
+    void ensureCapacity() {
+        if ((mSize + 1) * 2 <= mIds.length) {
+            return;
+        }
+        Object[] keys = mKeys;
+        int[] ids = mIds;
+        allocate(ids.length * 2);
+        int mask = mIds.length - 1;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != EMPTY) {
+                int slot = mix(Objects.hashCode(keys[i])) & mask;
+                while (mIds[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                mKeys[slot] = keys[i];
+                mIds[slot] = ids[i];
+            }
+        }
+    }
+
+    /**
+     * 顶点为int的特化字典，键直接存放在int[]中
+     */
+    public static class OfInt extends VertexDictionary<Integer> {
+        private int[] mIntKeys;
+        // 不是Integer的键(包括null)，第一次添加时才建立
+        private VertexDictionary<Object> mOthers;
+
+        public OfInt(int expectedSize) {
+            super(expectedSize);
+        }
+
+        @Override
+        void allocate(int capacity) {
+            mIntKeys = new int[capacity];
+            mIds = new int[capacity];
+            Arrays.fill(mIds, EMPTY);
+        }
+
+        @Override
+        int indexOfKey(Object item) {
+            if (item instanceof Integer) {
+                return indexOf(((Integer)item).intValue());
+            }
+            return mOthers == null ? -1 : mOthers.indexOfKey(item);
+        }
+
+        /**
+         * 返回key对应的顶点序号，不存在则返回-1
+         */
+        public int indexOf(int key) {
+            int mask = mIds.length - 1;
+            int slot = mix(key) & mask;
+            while (mIds[slot] != EMPTY) {
+                if (mIntKeys[slot] == key) {
+                    return mIds[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        @Override
+        void putKey(Object item, int id) {
+            if (item instanceof Integer) {
+                put(((Integer)item).intValue(), id);
+                return;
+            }
+            if (mOthers == null) {
+                mOthers = new VertexDictionary<>();
+            }
+            mOthers.putKey(item, id);
+            mNextId = Math.max(mNextId, id + 1);
+        }
+
+        @Override
+        public int size() {
+            return mOthers == null ? mSize : mSize + mOthers.mSize;
+        }
+
+        public void put(int key, int id) {
+            if (id < 0) {
+                throw new IllegalArgumentException("id " + id);
+            }
+            ensureCapacity();
+            int mask = mIds.length - 1;
+            int slot = mix(key) & mask;
+            while (mIds[slot] != EMPTY) {
+                if (mIntKeys[slot] == key) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (mIds[slot] == EMPTY) {
+                mIntKeys[slot] = key;
+                mSize++;
+            }
+            mIds[slot] = id;
+            mNextId = Math.max(mNextId, id + 1);
+        }
+
+        public int intern(int key) {
+            int id = indexOf(key);
+            if (id == -1) {
+                id = mNextId;
+                put(key, id);
+            }
+            return id;
+        }
+
+        @Override
+        void ensureCapacity() {
+            if ((mSize + 1) * 2 <= mIds.length) {
+                return;
+            }
+            int[] keys = mIntKeys;
+            int[] ids = mIds;
+            allocate(ids.length * 2);
+            int mask = mIds.length - 1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] != EMPTY) {
+                    int slot = mix(keys[i]) & mask;
+                    while (mIds[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    mIntKeys[slot] = keys[i];
+                    mIds[slot] = ids[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * 顶点为long的特化字典，键直接存放在long[]中
+     */
+    public static class OfLong extends VertexDictionary<Long> {
+        private long[] mLongKeys;
+        // 不是Long的键(包括null)，第一次添加时才建立
+        private VertexDictionary<Object> mOthers;
+
+        public OfLong(int expectedSize) {
+            super(expectedSize);
+        }
+
+        @Override
+        void allocate(int capacity) {
+            mLongKeys = new long[capacity];
+            mIds = new int[capacity];
+            Arrays.fill(mIds, EMPTY);
+        }
+
+        @Override
+        int indexOfKey(Object item) {
+            if (item instanceof Long) {
+                return indexOf(((Long)item).longValue());
+            }
+            return mOthers == null ? -1 : mOthers.indexOfKey(item);
+        }
+
+        /**
+         * 返回key对应的顶点序号，不存在则返回-1
+         */
+        public int indexOf(long key) {
+            int mask = mIds.length - 1;
+            int slot = mix(key) & mask;
+            while (mIds[slot] != EMPTY) {
+                if (mLongKeys[slot] == key) {
+                    return mIds[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        @Override
+        void putKey(Object item, int id) {
+            if (item instanceof Long) {
+                put(((Long)item).longValue(), id);
+                return;
+            }
+            if (mOthers == null) {
+                mOthers = new VertexDictionary<>();
+            }
+            mOthers.putKey(item, id);
+            mNextId = Math.max(mNextId, id + 1);
+        }
+
+        @Override
+        public int size() {
+            return mOthers == null ? mSize : mSize + mOthers.mSize;
+        }
+
+        public void put(long key, int id) {
+            if (id < 0) {
+                throw new IllegalArgumentException("id " + id);
+            }
+            ensureCapacity();
+            int mask = mIds.length - 1;
+            int slot = mix(key) & mask;
+            while (mIds[slot] != EMPTY) {
+                if (mLongKeys[slot] == key) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (mIds[slot] == EMPTY) {
+                mLongKeys[slot] = key;
+                mSize++;
+            }
+            mIds[slot] = id;
+            mNextId = Math.max(mNextId, id + 1);
+        }
+
+        public int intern(long key) {
+            int id = indexOf(key);
+            if (id == -1) {
+                id = mNextId;
+                put(key, id);
+            }
+            return id;
+        }
+
+        @Override
+        void ensureCapacity() {
+            if ((mSize + 1) * 2 <= mIds.length) {
+                return;
+            }
+            long[] keys = mLongKeys;
+            int[] ids = mIds;
+            allocate(ids.length * 2);
+            int mask = mIds.length - 1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] != EMPTY) {
+                    int slot = mix(keys[i]) & mask;
+                    while (mIds[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    mLongKeys[slot] = keys[i];
+                    mIds[slot] = ids[i];
+                }
+            }
+        }
+    }
+}
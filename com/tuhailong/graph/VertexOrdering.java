@@ -0,0 +1,357 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 顶点的重新编号(排列)，用于改善遍历时访问邻接表的局部性，或者减小邻接矩阵的带宽
+ * 1. reverseCuthillMcKee：每个连通分量从伪外围顶点开始广度优先编号，同一顶点的邻接顶点按度从小到大，
+ *    最后整体逆序；边的两个端点的新序号尽量接近，邻接矩阵的非零元素集中在对角线附近；
+ * 2. degreeDescending：按度从大到小编号，度相同时保持原来的先后，高度数的顶点集中在一起；
+ * 3. bfs：从度最大的顶点开始广度优先编号，同一层的顶点序号相邻。
+ * 有向图按忽略方向后的边计算，度为出度与入度之和；新序号为i的顶点是原图中序号为original(i)的顶点
+ *
+ * @author tuhailong
+ */
+public final class VertexOrdering {
+    // 新序号为i的顶点在原图中的序号
+    private final int[] mOrder;
+    // 原图中序号为v的顶点的新序号
+    private final int[] mRanks;
+    // 重新编号前后的带宽：所有边的两个端点的序号之差的最大值
+    private final int mOriginalBandwidth;
+    private final int mBandwidth;
+
+    private VertexOrdering(Adjacency out, int[] order) {
+        int vLen = order.length;
+        int[] ranks = new int[vLen];
+        for (int i = 0; i < vLen; i++) {
+            ranks[order[i]] = i;
+        }
+        int original = 0;
+        int bandwidth = 0;
+        for (int v = 0; v < vLen; v++) {
+            for (int e = out.firstEdge(v); e >= 0; e = out.nextEdge(v, e)) {
+                int w = out.edgeTarget(v, e);
+                original = Math.max(original, Math.abs(v - w));
+                bandwidth = Math.max(bandwidth, Math.abs(ranks[v] - ranks[w]));
+            }
+        }
+        this.mOrder = order;
+        this.mRanks = ranks;
+        this.mOriginalBandwidth = original;
+        this.mBandwidth = bandwidth;
+    }
+
+    /**
+     * 逆Cuthill-McKee顺序，in为有向图的入边，无向图为null
+     */
+    static VertexOrdering reverseCuthillMcKee(Adjacency out, Adjacency in) {
+        Instrumentation.Probe probe = Instrumentation.begin("VertexOrdering.reverseCuthillMcKee");
+        int vLen = out.vertexSize();
+        int[] degrees = degrees(out, in);
+        // 已编号的顶点的标记，编号完成后再按逆序重新计算
+        boolean[] numbered = new boolean[vLen];
+        int[] order = new int[vLen];
+        // 同一顶点新加入的邻接顶点按(度, 序号)排序
+        long[] keys = new long[16];
+        TraversalContext context = new TraversalContext(vLen);
+        int size = 0;
+        long edges = 0;
+        // 按度从小到大寻找每个连通分量中第一个顶点
+        for (int s : ascending(degrees)) {
+            if (numbered[s]) {
+                continue;
+            }
+            int root = peripheral(out, in, degrees, s, context);
+            numbered[root] = true;
+            order[size++] = root;
+            // order同时是广度优先的队列
+            for (int head = size - 1; head < size; head++) {
+                int v = order[head];
+                int from = size;
+                for (int e = out.firstEdge(v); e >= 0; e = out.nextEdge(v, e)) {
+                    int w = out.edgeTarget(v, e);
+                    if (!numbered[w]) {
+                        numbered[w] = true;
+                        order[size++] = w;
+                    }
+                }
+                if (in != null) {
+                    for (int e = in.firstEdge(v); e >= 0; e = in.nextEdge(v, e)) {
+                        int w = in.edgeTarget(v, e);
+                        if (!numbered[w]) {
+                            numbered[w] = true;
+                            order[size++] = w;
+                        }
+                    }
+                }
+                edges += degrees[v];
+                int count = size - from;
+                if (count > 1) {
+                    if (count > keys.length) {
+                        keys = new long[Math.max(count, keys.length * 2)];
+                    }
+                    for (int k = 0; k < count; k++) {
+                        int w = order[from + k];
+                        keys[k] = (long)degrees[w] << 32 | w;
+                    }
+                    Arrays.sort(keys, 0, count);
+                    for (int k = 0; k < count; k++) {
+                        order[from + k] = (int)keys[k];
+                    }
+                }
+            }
+        }
+        for (int i = 0, j = vLen - 1; i < j; i++, j--) {
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        if (probe != null) {
+            probe.end(vLen, edges, 0);
+        }
+        return new VertexOrdering(out, order);
+    }
+
+    /**
+     * George-Liu算法找伪外围顶点：从start开始广度优先搜索，在最后一层中取度最小的顶点重新搜索，
+     * 直到离心率(层数)不再增加；每次搜索为O(分量的大小)，通常只需要几次
+     */
+    private static int peripheral(Adjacency out, Adjacency in, int[] degrees, int start, TraversalContext context) {
+        int root = start;
+        int eccentricity = -1;
+        while (true) {
+            context.begin(out.vertexSize());
+            int[] queue = context.queue();
+            int rear = 0;
+            context.visit(root);
+            queue[rear++] = root;
+            int levels = 0;
+            int levelStart = 0;
+            int head = 0;
+            while (head < rear) {
+                levelStart = head;
+                int levelEnd = rear;
+                for (; head < levelEnd; head++) {
+                    int v = queue[head];
+                    for (int e = out.firstEdge(v); e >= 0; e = out.nextEdge(v, e)) {
+                        int w = out.edgeTarget(v, e);
+                        if (!context.visited(w)) {
+                            context.visit(w);
+                            queue[rear++] = w;
+                        }
+                    }
+                    if (in != null) {
+                        for (int e = in.firstEdge(v); e >= 0; e = in.nextEdge(v, e)) {
+                            int w = in.edgeTarget(v, e);
+                            if (!context.visited(w)) {
+                                context.visit(w);
+                                queue[rear++] = w;
+                            }
+                        }
+                    }
+                }
+                levels++;
+            }
+            if (levels - 1 <= eccentricity) {
+                return root;
+            }
+            eccentricity = levels - 1;
+            // 最后一层[levelStart, rear)中度最小的顶点
+            int next = queue[levelStart];
+            for (int i = levelStart + 1; i < rear; i++) {
+                if (degrees[queue[i]] < degrees[next]) {
+                    next = queue[i];
+                }
+            }
+            root = next;
+        }
+    }
+
+    /**
+     * 按度从大到小的顺序，度相同时序号小的在前
+     */
+    static VertexOrdering degreeDescending(Adjacency out, Adjacency in) {
+        return new VertexOrdering(out, descending(degrees(out, in)));
+    }
+
+    /**
+     * 广度优先的访问顺序，每个连通分量从其中度最大的顶点开始
+     */
+    static VertexOrdering bfs(Adjacency out, Adjacency in) {
+        Instrumentation.Probe probe = Instrumentation.begin("VertexOrdering.bfs");
+        int[] starts = descending(degrees(out, in));
+        int vLen = starts.length;
+        TraversalContext context = new TraversalContext(vLen);
+        context.begin(vLen);
+        int[] order = new int[vLen];
+        int size = 0;
+        long edges = 0;
+        for (int s : starts) {
+            if (context.visited(s)) {
+                continue;
+            }
+            context.visit(s);
+            order[size++] = s;
+            for (int head = size - 1; head < size; head++) {
+                int v = order[head];
+                for (int e = out.firstEdge(v); e >= 0; e = out.nextEdge(v, e)) {
+                    int w = out.edgeTarget(v, e);
+                    if (!context.visited(w)) {
+                        context.visit(w);
+                        order[size++] = w;
+                    }
+                    edges++;
+                }
+                if (in != null) {
+                    for (int e = in.firstEdge(v); e >= 0; e = in.nextEdge(v, e)) {
+                        int w = in.edgeTarget(v, e);
+                        if (!context.visited(w)) {
+                            context.visit(w);
+                            order[size++] = w;
+                        }
+                        edges++;
+                    }
+                }
+            }
+        }
+        if (probe != null) {
+            probe.end(vLen, edges, 0);
+        }
+        return new VertexOrdering(out, order);
+    }
+
+    // 每个顶点的出度与入度之和
+    private static int[] degrees(Adjacency out, Adjacency in) {
+        int vLen = out.vertexSize();
+        int[] degrees = new int[vLen];
+        for (int v = 0; v < vLen; v++) {
+            degrees[v] = out.degree(v) + (in != null ? in.degree(v) : 0);
+        }
+        return degrees;
+    }
+
+    // 按度从小到大的顺序，计数排序，度相同时序号小的在前
+    private static int[] ascending(int[] degrees) {
+        int vLen = degrees.length;
+        int max = 0;
+        for (int d : degrees) {
+            max = Math.max(max, d);
+        }
+        int[] starts = new int[max + 2];
+        for (int d : degrees) {
+            starts[d + 1]++;
+        }
+        for (int d = 0; d <= max; d++) {
+            starts[d + 1] += starts[d];
+        }
+        int[] order = new int[vLen];
+        for (int v = 0; v < vLen; v++) {
+            order[starts[degrees[v]]++] = v;
+        }
+        return order;
+    }
+
+    // 按度从大到小的顺序，度相同时序号小的在前
+    private static int[] descending(int[] degrees) {
+        int[] order = ascending(degrees);
+        // 计数排序是稳定的，逆序后度相同的顶点也要恢复原来的先后
+        int vLen = order.length;
+        int[] ret = new int[vLen];
+        int pos = 0;
+        for (int hi = vLen; hi > 0;) {
+            int lo = hi - 1;
+            while (lo > 0 && degrees[order[lo - 1]] == degrees[order[hi - 1]]) {
+                lo--;
+            }
+            System.arraycopy(order, lo, ret, pos, hi - lo);
+            pos += hi - lo;
+            hi = lo;
+        }
+        return ret;
+    }
+
+    /**
+     * 顶点数量
+     */
+    public int size() {
+        return mOrder.length;
+    }
+
+    /**
+     * 新序号为i的顶点在原图中的序号
+     */
+    public int original(int i) {
+        return mOrder[i];
+    }
+
+    /**
+     * 原图中序号为v的顶点的新序号
+     */
+    public int rank(int v) {
+        return mRanks[v];
+    }
+
+    /**
+     * 排列：第i个元素是新序号为i的顶点在原图中的序号
+     */
+    public int[] order() {
+        return Arrays.copyOf(mOrder, mOrder.length);
+    }
+
+    /**
+     * 逆排列：第v个元素是原图中序号为v的顶点的新序号
+     */
+    public int[] ranks() {
+        return Arrays.copyOf(mRanks, mRanks.length);
+    }
+
+    /**
+     * 重新编号后邻接矩阵的带宽
+     */
+    public int bandwidth() {
+        return mBandwidth;
+    }
+
+    /**
+     * 重新编号前邻接矩阵的带宽
+     */
+    public int originalBandwidth() {
+        return mOriginalBandwidth;
+    }
+
+    /**
+     * 按新序号排列的顶点数组
+     */
+    @SuppressWarnings("unchecked")
+    <T> T[] relabel(T[] vertexes) {
+        int vLen = mOrder.length;
+        T[] ret = (T[])new Object[vLen];
+        for (int i = 0; i < vLen; i++) {
+            ret[i] = vertexes[mOrder[i]];
+        }
+        return ret;
+    }
+
+    /**
+     * 按新序号重建的邻接表，每个顶点的邻接顶点按新序号升序排列
+     */
+    CompressedSparseRow relabel(Adjacency adjacency) {
+        return CompressedSparseRow.permute(adjacency, mOrder, mRanks);
+    }
+
+    /**
+     * 按新序号重建的邻接矩阵：原矩阵中(v, w)位置的1移到(rank(v), rank(w))
+     */
+    BitMatrix relabel(BitMatrix matrix) {
+        int vLen = mOrder.length;
+        BitMatrix ret = new BitMatrix(vLen);
+        for (int v = 0; v < vLen; v++) {
+            int i = mRanks[v];
+            for (int w = matrix.nextSetBit(v, 0); w >= 0; w = matrix.nextSetBit(v, w + 1)) {
+                ret.set(i, mRanks[w]);
+            }
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,88 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * IntGraph的顶点信息表：顶点序号与顶点信息的双向映射，与图分开存放，
+ * 只在输入输出时把顶点信息转换为序号或者把序号转换回来，遍历等热路径上不需要它
+ *
+ * @author tuhailong
+ */
+public final class VertexTable<T> {
+    // 序号为i的顶点的信息
+    private T[] mValues;
+    private int mSize;
+    private final VertexDictionary<T> mDictionary;
+
+    @SuppressWarnings("unchecked")
+    public VertexTable() {
+        mValues = (T[])new Object[4];
+        mDictionary = new VertexDictionary<>();
+    }
+
+    /**
+     * 由顶点数组建立表，vexs[i]的序号为i，顶点不能重复
+     */
+    @SuppressWarnings("unchecked")
+    public VertexTable(T[] vexs) {
+        mValues = (T[])Arrays.copyOf(vexs, Math.max(4, vexs.length), Object[].class);
+        mSize = vexs.length;
+        mDictionary = VertexDictionary.of(vexs);
+        if (mDictionary.size() != mSize) {
+            throw new IllegalArgumentException("duplicate vertexes");
+        }
+    }
+
+    /**
+     * 顶点数量
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * item的序号，不存在则返回-1
+     */
+    public int id(T item) {
+        return mDictionary.index(item);
+    }
+
+    /**
+     * item的序号，不存在时为它分配下一个序号，即当前的size()
+     */
+    public int intern(T item) {
+        int id = mDictionary.index(item);
+        if (id == -1) {
+            id = mSize;
+            if (id == mValues.length) {
+                mValues = Arrays.copyOf(mValues, id + (id >> 1));
+            }
+            mValues[id] = item;
+            mDictionary.put(item, id);
+            mSize++;
+        }
+        return id;
+    }
+
+    /**
+     * 序号为id的顶点的信息
+     */
+    public T get(int id) {
+        if (id < 0 || id >= mSize) {
+            throw new IndexOutOfBoundsException("vertex " + id);
+        }
+        return mValues[id];
+    }
+
+    /**
+     * 把一组序号(例如IntGraph的遍历结果)转换为顶点信息
+     */
+    @SuppressWarnings("unchecked")
+    public T[] get(int[] ids) {
+        T[] ret = (T[])new Object[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ret[i] = get(ids[i]);
+        }
+        return ret;
+    }
+}
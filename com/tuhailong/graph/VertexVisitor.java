@@ -0,0 +1,14 @@
+package com.tuhailong.graph;
+
+/**
+ * 遍历过程中按发现的先后依次接收顶点序号的回调
+ *
+ * @author tuhailong
+ */
+@FunctionalInterface
+public interface VertexVisitor {
+    /**
+     * 访问顶点数组中序号为v的顶点，返回false则立即终止遍历
+     */
+    boolean visit(int v);
+}
@@ -0,0 +1,83 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 带权的邻接矩阵：边的有无仍由BitMatrix按位记录，遍历时可以整字跳过没有边的列；
+ * 权重存放在稠密的double矩阵中，没有边的位置为正无穷
+ * 游标与BitMatrix相同，即对端顶点的列号
+ *
+ * @author tuhailong
+ */
+final class WeightMatrix implements WeightedAdjacency {
+    private final BitMatrix mMatrix;
+    // mWeights[i][j]为由i指向j的边的权重
+    private final double[][] mWeights;
+
+    WeightMatrix(BitMatrix matrix) {
+        int size = matrix.size();
+        this.mMatrix = matrix;
+        this.mWeights = new double[size][size];
+        for (double[] row : mWeights) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     * 设置由i指向j的边的权重，已有权重时保留较小的一个
+     */
+    void set(int i, int j, double weight) {
+        mMatrix.set(i, j);
+        if (weight < mWeights[i][j]) {
+            mWeights[i][j] = weight;
+        }
+    }
+
+    /**
+     * 由i指向j的边的权重，没有边则返回正无穷
+     */
+    double get(int i, int j) {
+        return mWeights[i][j];
+    }
+
+    /**
+     * 权重矩阵的第i行，调用方只读
+     */
+    double[] row(int i) {
+        return mWeights[i];
+    }
+
+    BitMatrix matrix() {
+        return mMatrix;
+    }
+
+    @Override
+    public int vertexSize() {
+        return mMatrix.vertexSize();
+    }
+
+    @Override
+    public int degree(int v) {
+        return mMatrix.degree(v);
+    }
+
+    @Override
+    public int firstEdge(int v) {
+        return mMatrix.firstEdge(v);
+    }
+
+    @Override
+    public int nextEdge(int v, int e) {
+        return mMatrix.nextEdge(v, e);
+    }
+
+    @Override
+    public int edgeTarget(int v, int e) {
+        return mMatrix.edgeTarget(v, e);
+    }
+
+    @Override
+    public double edgeWeight(int v, int e) {
+        return mWeights[v][e];
+    }
+}
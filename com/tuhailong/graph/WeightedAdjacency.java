@@ -0,0 +1,13 @@
+package com.tuhailong.graph;
+
+/**
+ * 带权邻接关系的只读视图，在Adjacency的基础上可以获取游标所指的边的权重
+ *
+ * @author tuhailong
+ */
+interface WeightedAdjacency extends Adjacency {
+    /**
+     * 返回顶点v的游标e所指的边的权重
+     */
+    double edgeWeight(int v, int e);
+}
@@ -0,0 +1,56 @@
+package com.tuhailong.graph;
+
+/**
+ * 带权的CSR：在CSR的基础上用与mTargets等长的数组存放每条边的权重，
+ * CSR的游标就是边在mTargets中的位置，因此也是权重的位置
+ *
+ * @author tuhailong
+ */
+final class WeightedCompressedSparseRow implements WeightedAdjacency {
+    private final CompressedSparseRow mCsr;
+    // 边的权重，与CSR的对端顶点数组一一对应
+    private final double[] mWeights;
+
+    WeightedCompressedSparseRow(CompressedSparseRow csr, double[] weights) {
+        if (weights.length != csr.edgeSize()) {
+            throw new IllegalArgumentException("expected " + csr.edgeSize() + " weights, got " + weights.length);
+        }
+        this.mCsr = csr;
+        this.mWeights = weights;
+    }
+
+    @Override
+    public int vertexSize() {
+        return mCsr.vertexSize();
+    }
+
+    @Override
+    public int degree(int v) {
+        return mCsr.degree(v);
+    }
+
+    @Override
+    public int firstEdge(int v) {
+        return mCsr.firstEdge(v);
+    }
+
+    @Override
+    public int nextEdge(int v, int e) {
+        return mCsr.nextEdge(v, e);
+    }
+
+    @Override
+    public int edgeTarget(int v, int e) {
+        return mCsr.edgeTarget(v, e);
+    }
+
+    @Override
+    public int[] adjacent(int v) {
+        return mCsr.adjacent(v);
+    }
+
+    @Override
+    public double edgeWeight(int v, int e) {
+        return mWeights[e];
+    }
+}
@@ -0,0 +1,187 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 带权有向图的邻接表表示：在DirectedGraph的CSR之外，用与边一一对应的数组存放权重
+ * 添加、删除顶点或边时同步修改带权的邻接表，不指定权重添加的边权重为1；
+ * 遍历、反向图等继承自DirectedGraph的操作忽略权重，storeOffHeap只移动遍历用的邻接表，权重仍在堆上
+ *
+ * @author tuhailong
+ */
+public class WeightedDirectedGraph<T> extends DirectedGraph<T> {
+    // 带权的邻接表：构建后为只读的带权CSR，第一次修改时转换为可修改的WeightedDynamicAdjacency
+    private WeightedAdjacency mWeighted;
+
+    /**
+     * weights[i]为边edges[i]的权重
+     */
+    public WeightedDirectedGraph(T[] vexs, T[][] edges, double[] weights) {
+        super(vexs, edges);
+        if (weights.length != edges.length) {
+            throw new IllegalArgumentException(edges.length + " edges but " + weights.length + " weights");
+        }
+        CompressedSparseRow csr = (CompressedSparseRow)adjacency();
+        // 按与CSR构建器相同的顺序放置权重：同一起始顶点的边保持输入顺序
+        int[] cursor = Arrays.copyOf(csr.offsets(), vexs.length);
+        double[] placed = new double[csr.edgeSize()];
+        for (int i = 0; i < edges.length; i++) {
+            int sp = index(edges[i][0]);
+            int ep = index(edges[i][1]);
+            if (sp == -1 || ep == -1) {
+                continue;
+            }
+            if (Double.isNaN(weights[i])) {
+                throw new IllegalArgumentException("weight of edge " + i + " is NaN");
+            }
+            placed[cursor[sp]++] = weights[i];
+        }
+        mWeighted = new WeightedCompressedSparseRow(csr, placed);
+    }
+
+    /**
+     * 由已经建好的顶点数组、字典、CSR和按CSR中边的顺序排列的权重构造图，不复制
+     */
+    WeightedDirectedGraph(T[] vertexes, VertexDictionary<T> dictionary, CompressedSparseRow csr, double[] weights) {
+        super(vertexes, vertexes.length, dictionary, csr);
+        mWeighted = new WeightedCompressedSparseRow(csr, weights);
+    }
+
+    /**
+     * 由顶点数组中序号为sp的顶点指向序号为ep的顶点的边的权重，有多条时返回最小的，没有则返回正无穷
+     */
+    public double weight(int sp, int ep) {
+        double ret = Double.POSITIVE_INFINITY;
+        for (int e = mWeighted.firstEdge(sp); e >= 0; e = mWeighted.nextEdge(sp, e)) {
+            if (mWeighted.edgeTarget(sp, e) == ep) {
+                ret = Math.min(ret, mWeighted.edgeWeight(sp, e));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * 用Dijkstra算法求从顶点数组中序号为source的顶点出发的最短路径，要求权重非负
+     */
+    public ShortestPaths dijkstra(int source) {
+        return ShortestPaths.dijkstra(mWeighted, source);
+    }
+
+    /**
+     * 用Bellman-Ford算法求从顶点数组中序号为source的顶点出发的最短路径，允许负权重
+     */
+    public ShortestPaths bellmanFord(int source) {
+        return ShortestPaths.bellmanFord(mWeighted, source);
+    }
+
+    WeightedAdjacency weightedAdjacency() {
+        return mWeighted;
+    }
+
+    /**
+     * 添加一个没有边的顶点，返回它在顶点数组中的序号
+     */
+    @Override
+    public int addVertex(T info) {
+        int v = super.addVertex(info);
+        mutableWeights().addVertex();
+        return v;
+    }
+
+    /**
+     * 添加一条由顶点数组中序号为sp的顶点指向序号为ep的边，权重为1
+     */
+    @Override
+    public void addEdge(int sp, int ep) {
+        addEdge(sp, ep, 1);
+    }
+
+    /**
+     * 添加一条由顶点数组中序号为sp的顶点指向序号为ep的边，权重为weight，均摊O(1)
+     */
+    public void addEdge(int sp, int ep, double weight) {
+        if (Double.isNaN(weight)) {
+            throw new IllegalArgumentException("weight is NaN");
+        }
+        super.addEdge(sp, ep);
+        mutableWeights().addEdge(sp, ep, weight);
+    }
+
+    /**
+     * 添加一条由顶点sp指向顶点ep、权重为weight的边
+     */
+    public void addEdge(T sp, T ep, double weight) {
+        addEdge(indexOrThrow(sp), indexOrThrow(ep), weight);
+    }
+
+    /**
+     * 删除一条由顶点数组中序号为sp的顶点指向序号为ep的顶点的边，存在多条时删除最早添加的一条
+     */
+    @Override
+    public boolean removeEdge(int sp, int ep) {
+        if (!super.removeEdge(sp, ep)) {
+            return false;
+        }
+        mutableWeights().removeEdge(sp, ep);
+        return true;
+    }
+
+    /**
+     * 把邻接表和带权的邻接表都重新压缩为只读的CSR
+     */
+    @Override
+    public void compact() {
+        super.compact();
+        if (mWeighted instanceof WeightedDynamicAdjacency) {
+            mWeighted = ((WeightedDynamicAdjacency)mWeighted).compact();
+        }
+    }
+
+    private int indexOrThrow(T item) {
+        int v = index(item);
+        if (v == -1) {
+            throw new IllegalArgumentException("unknown vertex " + item);
+        }
+        return v;
+    }
+
+    // 第一次修改时把只读的带权邻接表转换为可修改的形式
+    private WeightedDynamicAdjacency mutableWeights() {
+        if (!(mWeighted instanceof WeightedDynamicAdjacency)) {
+            mWeighted = WeightedDynamicAdjacency.copyOf(mWeighted);
+        }
+        return (WeightedDynamicAdjacency)mWeighted;
+    }
+
+    public static void main(String[] args) {
+        Character[] vexs = { 'A', 'B', 'C', 'D', 'E' };
+        Character[][] edges = new Character[][] { { 'A', 'B' }, { 'A', 'C' }, { 'B', 'C' },
+            { 'B', 'D' }, { 'C', 'D' }, { 'D', 'E' } };
+        double[] weights = { 4, 1, 2, 5, 8, 3 };
+
+        WeightedDirectedGraph<Character> graph = new WeightedDirectedGraph<>(vexs, edges, weights);
+        ShortestPaths paths = graph.dijkstra(graph.index('A'));
+        for (int v = 0; v < graph.vertexSize(); v++) {
+            StringBuilder sb = new StringBuilder();
+            for (int w : paths.path(v)) {
+                sb.append(graph.vertexInfo(w));
+            }
+            System.out.println(graph.vertexInfo(v) + ": " + paths.distance(v) + " " + sb);
+        }
+        /**
+        A: 0.0 A
+        B: 4.0 AB
+        C: 1.0 AC
+        D: 9.0 ACD
+        E: 12.0 ACDE
+         */
+
+        graph.addEdge(graph.index('A'), graph.index('E'), 10);
+        graph.removeEdge(graph.index('A'), graph.index('B'));
+        paths = graph.dijkstra(graph.index('A'));
+        System.out.println("B: " + paths.distance(graph.index('B')) + ", E: " + paths.distance(graph.index('E')));
+        /**
+        B: Infinity, E: 10.0
+         */
+    }
+}
@@ -0,0 +1,158 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 可修改的带权邻接表：与DynamicAdjacency相同，每个顶点的邻接顶点存放在一个按需扩容的int[]中，
+ * 同时用一个等长的double[]存放对应边的权重
+ * 游标即边在该顶点的行中的位置
+ *
+ * @author tuhailong
+ */
+final class WeightedDynamicAdjacency implements WeightedAdjacency {
+    private static final int[] EMPTY_ROW = new int[0];
+    private static final double[] EMPTY_WEIGHTS = new double[0];
+
+    // mRows[v][0, mDegrees[v])为顶点v的邻接顶点，mWeights[v]中相同位置为对应边的权重
+    private int[][] mRows;
+    private double[][] mWeights;
+    // 每个顶点的出度
+    private int[] mDegrees;
+    // 顶点数量
+    private int mVertexSize;
+
+    private WeightedDynamicAdjacency(int vertexSize) {
+        mRows = new int[Math.max(vertexSize, 4)][];
+        mWeights = new double[mRows.length][];
+        mDegrees = new int[mRows.length];
+        Arrays.fill(mRows, EMPTY_ROW);
+        Arrays.fill(mWeights, EMPTY_WEIGHTS);
+        mVertexSize = vertexSize;
+    }
+
+    /**
+     * 复制adjacency中的所有边和权重，邻接顶点的顺序不变
+     */
+    static WeightedDynamicAdjacency copyOf(WeightedAdjacency adjacency) {
+        int vLen = adjacency.vertexSize();
+        WeightedDynamicAdjacency ret = new WeightedDynamicAdjacency(vLen);
+        for (int v = 0; v < vLen; v++) {
+            int degree = adjacency.degree(v);
+            if (degree == 0) {
+                continue;
+            }
+            int[] row = new int[degree];
+            double[] weights = new double[degree];
+            int size = 0;
+            for (int e = adjacency.firstEdge(v); e >= 0; e = adjacency.nextEdge(v, e)) {
+                row[size] = adjacency.edgeTarget(v, e);
+                weights[size++] = adjacency.edgeWeight(v, e);
+            }
+            ret.mRows[v] = row;
+            ret.mWeights[v] = weights;
+            ret.mDegrees[v] = size;
+        }
+        return ret;
+    }
+
+    /**
+     * 重新压缩为只读的带权CSR，邻接顶点的顺序不变
+     */
+    WeightedCompressedSparseRow compact() {
+        CompressedSparseRow csr = CompressedSparseRow.copyOf(this);
+        double[] weights = new double[csr.edgeSize()];
+        int[] offsets = csr.offsets();
+        for (int v = 0; v < mVertexSize; v++) {
+            System.arraycopy(mWeights[v], 0, weights, offsets[v], mDegrees[v]);
+        }
+        return new WeightedCompressedSparseRow(csr, weights);
+    }
+
+    @Override
+    public int vertexSize() {
+        return mVertexSize;
+    }
+
+    @Override
+    public int degree(int v) {
+        return mDegrees[v];
+    }
+
+    @Override
+    public int firstEdge(int v) {
+        return mDegrees[v] > 0 ? 0 : -1;
+    }
+
+    @Override
+    public int nextEdge(int v, int e) {
+        return e + 1 < mDegrees[v] ? e + 1 : -1;
+    }
+
+    @Override
+    public int edgeTarget(int v, int e) {
+        return mRows[v][e];
+    }
+
+    @Override
+    public double edgeWeight(int v, int e) {
+        return mWeights[v][e];
+    }
+
+    /**
+     * 添加一个没有边的顶点，返回它的序号
+     */
+    int addVertex() {
+        if (mVertexSize == mRows.length) {
+            int newLen = mRows.length + (mRows.length >> 1);
+            mRows = Arrays.copyOf(mRows, newLen);
+            mWeights = Arrays.copyOf(mWeights, newLen);
+            mDegrees = Arrays.copyOf(mDegrees, newLen);
+            Arrays.fill(mRows, mVertexSize, newLen, EMPTY_ROW);
+            Arrays.fill(mWeights, mVertexSize, newLen, EMPTY_WEIGHTS);
+        }
+        return mVertexSize++;
+    }
+
+    /**
+     * 在顶点sp的邻接顶点的末尾添加权重为weight的边sp->ep
+     */
+    void addEdge(int sp, int ep, double weight) {
+        int[] row = mRows[sp];
+        int degree = mDegrees[sp];
+        if (degree == row.length) {
+            int newLen = Math.max(4, degree + (degree >> 1));
+            mRows[sp] = row = Arrays.copyOf(row, newLen);
+            mWeights[sp] = Arrays.copyOf(mWeights[sp], newLen);
+        }
+        row[degree] = ep;
+        mWeights[sp][degree] = weight;
+        mDegrees[sp] = degree + 1;
+    }
+
+    /**
+     * 删除一条由sp指向ep的边，存在多条时删除最早添加的一条，返回它的权重，没有则返回NaN
+     */
+    double removeEdge(int sp, int ep) {
+        return remove(sp, ep, Double.NaN);
+    }
+
+    /**
+     * 删除一条由sp指向ep、权重为weight的边，weight为NaN时不比较权重；
+     * 存在多条时删除最早添加的一条，返回它的权重，没有则返回NaN
+     */
+    double remove(int sp, int ep, double weight) {
+        int[] row = mRows[sp];
+        double[] weights = mWeights[sp];
+        int degree = mDegrees[sp];
+        for (int i = 0; i < degree; i++) {
+            if (row[i] == ep && (Double.isNaN(weight) || weights[i] == weight)) {
+                double ret = weights[i];
+                System.arraycopy(row, i + 1, row, i, degree - i - 1);
+                System.arraycopy(weights, i + 1, weights, i, degree - i - 1);
+                mDegrees[sp] = degree - 1;
+                return ret;
+            }
+        }
+        return Double.NaN;
+    }
+}
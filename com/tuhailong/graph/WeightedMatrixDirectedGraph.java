@@ -0,0 +1,92 @@
+package com.tuhailong.graph;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 带权有向图的邻接矩阵表示：边的有无仍由MatrixDirectedGraph的位矩阵记录，
+ * 权重存放在稠密的double矩阵中，重复的边保留最小的权重
+ *
+ * @author tuhailong
+ */
+public class WeightedMatrixDirectedGraph<T> extends MatrixDirectedGraph<T> {
+    // 带权的邻接矩阵
+    private final WeightMatrix mWeights;
+
+    /**
+     * weights[i]为边edges[i]的权重
+     */
+    WeightedMatrixDirectedGraph(T[] vexs, T[][] edges, double[] weights) {
+        super(vexs, edges);
+        if (weights.length != edges.length) {
+            throw new IllegalArgumentException(edges.length + " edges but " + weights.length + " weights");
+        }
+        mWeights = new WeightMatrix(matrix());
+        for (int i = 0; i < edges.length; i++) {
+            int sp = index(edges[i][0]);
+            int ep = index(edges[i][1]);
+            if (sp == -1 || ep == -1) {
+                continue;
+            }
+            if (Double.isNaN(weights[i])) {
+                throw new IllegalArgumentException("weight of edge " + i + " is NaN");
+            }
+            mWeights.set(sp, ep, weights[i]);
+        }
+    }
+
+    /**
+     * 由顶点数组中序号为sp的顶点指向序号为ep的顶点的边的权重，没有则返回正无穷
+     */
+    public double weight(int sp, int ep) {
+        return mWeights.get(sp, ep);
+    }
+
+    /**
+     * 用Dijkstra算法求从顶点数组中序号为source的顶点出发的最短路径，要求权重非负
+     */
+    public ShortestPaths dijkstra(int source) {
+        return ShortestPaths.dijkstra(mWeights, source);
+    }
+
+    /**
+     * 用Bellman-Ford算法求从顶点数组中序号为source的顶点出发的最短路径，允许负权重
+     */
+    public ShortestPaths bellmanFord(int source) {
+        return ShortestPaths.bellmanFord(mWeights, source);
+    }
+
+    /**
+     * 用分块的Floyd-Warshall算法并行求所有顶点对之间的最短距离，允许负权重
+     */
+    public AllPairsShortestPaths floydWarshall() {
+        return floydWarshall(ForkJoinPool.commonPool());
+    }
+
+    public AllPairsShortestPaths floydWarshall(ForkJoinPool pool) {
+        return AllPairsShortestPaths.floydWarshall(mWeights, pool);
+    }
+
+    WeightMatrix weightMatrix() {
+        return mWeights;
+    }
+
+    public static void main(String[] args) {
+        Character[] vexs = { 'A', 'B', 'C', 'D', 'E' };
+        Character[][] edges = new Character[][] { { 'A', 'B' }, { 'A', 'C' }, { 'C', 'B' },
+            { 'B', 'D' }, { 'C', 'D' }, { 'D', 'E' }, { 'E', 'A' } };
+        double[] weights = { 4, 1, -2, 5, 8, 3, 1 };
+
+        WeightedMatrixDirectedGraph<Character> graph = new WeightedMatrixDirectedGraph<>(vexs, edges, weights);
+        ShortestPaths paths = graph.bellmanFord(0);
+        for (int v = 0; v < vexs.length; v++) {
+            System.out.println("A -> " + vexs[v] + ": " + paths.distance(v));
+        }
+        /**
+        A -> A: 0.0
+        A -> B: -1.0
+        A -> C: 1.0
+        A -> D: 4.0
+        A -> E: 7.0
+         */
+    }
+}
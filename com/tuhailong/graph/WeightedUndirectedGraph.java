@@ -0,0 +1,181 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+
+/**
+ * 带权无向图的邻接表表示：每条无向边存为两条方向相反的有向边，二者的权重相同
+ * 添加、删除顶点或边时同步修改带权的邻接表，不指定权重添加的边权重为1；
+ * storeOffHeap只移动遍历用的邻接表，权重仍在堆上
+ *
+ * @author tuhailong
+ */
+public class WeightedUndirectedGraph<T> extends UndirectedGraph<T> {
+    // 带权的邻接表：构建后为只读的带权CSR，第一次修改时转换为可修改的WeightedDynamicAdjacency
+    private WeightedAdjacency mWeighted;
+
+    /**
+     * weights[i]为边edges[i]的权重
+     */
+    WeightedUndirectedGraph(T[] vexs, T[][] edges, double[] weights) {
+        super(vexs, edges);
+        if (weights.length != edges.length) {
+            throw new IllegalArgumentException(edges.length + " edges but " + weights.length + " weights");
+        }
+        CompressedSparseRow csr = (CompressedSparseRow)adjacency();
+        // 构建器依次添加sp->ep和ep->sp，按相同的顺序放置权重
+        int[] cursor = Arrays.copyOf(csr.offsets(), vexs.length);
+        double[] placed = new double[csr.edgeSize()];
+        for (int i = 0; i < edges.length; i++) {
+            int sp = index(edges[i][0]);
+            int ep = index(edges[i][1]);
+            if (sp == -1 || ep == -1) {
+                continue;
+            }
+            if (Double.isNaN(weights[i])) {
+                throw new IllegalArgumentException("weight of edge " + i + " is NaN");
+            }
+            placed[cursor[sp]++] = weights[i];
+            placed[cursor[ep]++] = weights[i];
+        }
+        mWeighted = new WeightedCompressedSparseRow(csr, placed);
+    }
+
+    /**
+     * 由已经建好的顶点数组、字典、CSR和按CSR中边的顺序排列的权重构造图，不复制
+     */
+    WeightedUndirectedGraph(T[] vertexes, VertexDictionary<T> dictionary, CompressedSparseRow csr, double[] weights) {
+        super(vertexes, vertexes.length, dictionary, csr);
+        mWeighted = new WeightedCompressedSparseRow(csr, weights);
+    }
+
+    /**
+     * 连接顶点数组中序号为v和w的两个顶点的边的权重，有多条时返回最小的，没有则返回正无穷
+     */
+    public double weight(int v, int w) {
+        double ret = Double.POSITIVE_INFINITY;
+        for (int e = mWeighted.firstEdge(v); e >= 0; e = mWeighted.nextEdge(v, e)) {
+            if (mWeighted.edgeTarget(v, e) == w) {
+                ret = Math.min(ret, mWeighted.edgeWeight(v, e));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * 用Dijkstra算法求从顶点数组中序号为source的顶点出发的最短路径，要求权重非负
+     */
+    public ShortestPaths dijkstra(int source) {
+        return ShortestPaths.dijkstra(mWeighted, source);
+    }
+
+    /**
+     * 用Bellman-Ford算法求从顶点数组中序号为source的顶点出发的最短路径；
+     * 无向图中的一条负权重边本身就构成负环
+     */
+    public ShortestPaths bellmanFord(int source) {
+        return ShortestPaths.bellmanFord(mWeighted, source);
+    }
+
+    WeightedAdjacency weightedAdjacency() {
+        return mWeighted;
+    }
+
+    /**
+     * 添加一个没有边的顶点，返回它在顶点数组中的序号
+     */
+    @Override
+    public int addVertex(T info) {
+        int v = super.addVertex(info);
+        mutableWeights().addVertex();
+        return v;
+    }
+
+    /**
+     * 添加一条连接顶点数组中序号为v和w的两个顶点的边，权重为1
+     */
+    @Override
+    public void addEdge(int v, int w) {
+        addEdge(v, w, 1);
+    }
+
+    /**
+     * 添加一条连接顶点数组中序号为v和w的两个顶点的边，权重为weight，均摊O(1)
+     */
+    public void addEdge(int v, int w, double weight) {
+        if (Double.isNaN(weight)) {
+            throw new IllegalArgumentException("weight is NaN");
+        }
+        super.addEdge(v, w);
+        WeightedDynamicAdjacency weighted = mutableWeights();
+        weighted.addEdge(v, w, weight);
+        weighted.addEdge(w, v, weight);
+    }
+
+    /**
+     * 添加一条连接顶点v和w、权重为weight的边
+     */
+    public void addEdge(T v, T w, double weight) {
+        addEdge(indexOrThrow(v), indexOrThrow(w), weight);
+    }
+
+    /**
+     * 删除一条连接顶点数组中序号为v和w的两个顶点的边，存在多条时删除v的邻接顶点中最早添加的一条，
+     * w一侧删除权重相同的那条反向边
+     */
+    @Override
+    public boolean removeEdge(int v, int w) {
+        if (!super.removeEdge(v, w)) {
+            return false;
+        }
+        WeightedDynamicAdjacency weighted = mutableWeights();
+        weighted.remove(w, v, weighted.removeEdge(v, w));
+        return true;
+    }
+
+    /**
+     * 把邻接表和带权的邻接表都重新压缩为只读的CSR
+     */
+    @Override
+    public void compact() {
+        super.compact();
+        if (mWeighted instanceof WeightedDynamicAdjacency) {
+            mWeighted = ((WeightedDynamicAdjacency)mWeighted).compact();
+        }
+    }
+
+    private int indexOrThrow(T item) {
+        int v = index(item);
+        if (v == -1) {
+            throw new IllegalArgumentException("unknown vertex " + item);
+        }
+        return v;
+    }
+
+    // 第一次修改时把只读的带权邻接表转换为可修改的形式
+    private WeightedDynamicAdjacency mutableWeights() {
+        if (!(mWeighted instanceof WeightedDynamicAdjacency)) {
+            mWeighted = WeightedDynamicAdjacency.copyOf(mWeighted);
+        }
+        return (WeightedDynamicAdjacency)mWeighted;
+    }
+
+    public static void main(String[] args) {
+        Character[] vexs = { 'A', 'B', 'C', 'D', 'E' };
+        Character[][] edges = new Character[][] { { 'A', 'B' }, { 'A', 'C' }, { 'B', 'C' },
+            { 'B', 'D' }, { 'C', 'D' }, { 'D', 'E' } };
+        double[] weights = { 4, 1, 2, 5, 8, 3 };
+
+        WeightedUndirectedGraph<Character> graph = new WeightedUndirectedGraph<>(vexs, edges, weights);
+        ShortestPaths paths = graph.dijkstra(graph.index('E'));
+        for (int v = 0; v < graph.vertexSize(); v++) {
+            System.out.println("E -> " + vexs[v] + ": " + paths.distance(v));
+        }
+        /**
+        E -> A: 11.0
+        E -> B: 8.0
+        E -> C: 10.0
+        E -> D: 3.0
+        E -> E: 0.0
+         */
+    }
+}
@@ -0,0 +1,58 @@
+package com.tuhailong.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 邻接矩阵上的传递闭包和Floyd-Warshall，时间为O(V^3)，只测顶点数不超过2000的输入
+ *
+ * @author tuhailong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class AllPairsBenchmark {
+    @Param({ "sparse/1000", "sparse/10000",
+            "dense/1000", "dense/10000", "dense/100000", "dense/1000000",
+            "power-law/1000", "power-law/10000",
+            "long-chain/1000" })
+    public String input;
+
+    private MatrixDirectedGraph<Integer> mGraph;
+    private WeightedMatrixDirectedGraph<Integer> mWeighted;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GraphInput in = GraphInput.of(input);
+        mGraph = new MatrixDirectedGraph<>(in.vexs, in.edges);
+        double[] unitWeights = new double[in.edges.length];
+        Arrays.fill(unitWeights, 1);
+        mWeighted = new WeightedMatrixDirectedGraph<>(in.vexs, in.edges, unitWeights);
+    }
+
+    @Benchmark
+    public Object transitiveClosure() {
+        return mGraph.transitiveClosure();
+    }
+
+    @Benchmark
+    public Object floydWarshall() {
+        return mWeighted.floydWarshall();
+    }
+}
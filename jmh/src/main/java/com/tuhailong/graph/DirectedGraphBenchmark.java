@@ -0,0 +1,158 @@
+package com.tuhailong.graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DirectedGraph(邻接表)的构建、遍历、强连通分量、拓扑排序、可达性和重新编号
+ * 规模从1k到1M条边；10M条边用-p input=sparse/10000000等指定，需要较大的堆
+ *
+ * @author tuhailong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class DirectedGraphBenchmark {
+    private static final int QUERIES = 100000;
+
+    @Param({ "sparse/1000", "sparse/10000", "sparse/100000", "sparse/1000000",
+            "dense/1000", "dense/10000", "dense/100000", "dense/1000000",
+            "power-law/1000", "power-law/10000", "power-law/100000", "power-law/1000000",
+            "long-chain/1000", "long-chain/10000", "long-chain/100000", "long-chain/1000000" })
+    public String input;
+
+    private GraphInput mInput;
+    private DirectedGraph<Integer> mGraph;
+    private DirectedGraph<Integer> mReordered;
+    private ReachabilityIndex mIndex;
+    // 可达性查询的顶点对
+    private int[] mQueries;
+    private int mLast;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mInput = GraphInput.of(input);
+        mGraph = new DirectedGraph<>(mInput.vexs, mInput.edges);
+        mReordered = mGraph.reorder(mGraph.bfsOrdering());
+        mIndex = mGraph.reachabilityIndex();
+        mLast = mInput.vertexSize() - 1;
+        mQueries = new int[2 * QUERIES];
+        Random picker = new Random(mInput.vertexSize());
+        for (int i = 0; i < mQueries.length; i++) {
+            mQueries[i] = picker.nextInt(mInput.vertexSize());
+        }
+    }
+
+    @Benchmark
+    public Object construct() {
+        return new DirectedGraph<>(mInput.vexs, mInput.edges);
+    }
+
+    @Benchmark
+    public Object dfs() {
+        return mGraph.dfs();
+    }
+
+    @Benchmark
+    public Object bfs() {
+        return mGraph.bfs();
+    }
+
+    @Benchmark
+    public Object parallelBfs() {
+        return mGraph.parallelBfs(0);
+    }
+
+    @Benchmark
+    public Object shortestPath() {
+        return mGraph.shortestPath(0, mLast);
+    }
+
+    @Benchmark
+    public boolean hasCycle() {
+        return mGraph.hasCycle();
+    }
+
+    @Benchmark
+    public Object topologicalSort() {
+        return mGraph.topologicalSort();
+    }
+
+    @Benchmark
+    public Object topologicalLevels() {
+        return mGraph.topologicalLevels();
+    }
+
+    @Benchmark
+    public Object reverse() {
+        return mGraph.reverse();
+    }
+
+    @Benchmark
+    public Object stronglyConnectedComponent() {
+        return new DirectedGraph.StronglyConnectedComponent<>(mGraph);
+    }
+
+    @Benchmark
+    public Object reachabilityIndex() {
+        return mGraph.reachabilityIndex();
+    }
+
+    /**
+     * 每次调用回答QUERIES个随机的可达性查询，结果为单个查询的时间
+     */
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int reach() {
+        int count = 0;
+        for (int i = 0; i < mQueries.length; i += 2) {
+            count += mIndex.reach(mQueries[i], mQueries[i + 1]) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public Object reverseCuthillMcKee() {
+        return mGraph.reverseCuthillMcKee();
+    }
+
+    @Benchmark
+    public Object bfsOrdering() {
+        return mGraph.bfsOrdering();
+    }
+
+    /**
+     * 按bfsOrdering重新编号后的遍历，与dfs、bfs比较局部性的影响
+     */
+    @Benchmark
+    public Object reorderedDfs() {
+        return mReordered.dfs();
+    }
+
+    @Benchmark
+    public Object reorderedBfs() {
+        return mReordered.bfs();
+    }
+
+    @Benchmark
+    public Object reorderedStronglyConnectedComponent() {
+        return new DirectedGraph.StronglyConnectedComponent<>(mReordered);
+    }
+}
@@ -0,0 +1,117 @@
+package com.tuhailong.graph;
+
+import java.util.Random;
+
+/**
+ * 基准测试的输入：由"形状/边数"描述的图，例如"power-law/100000"
+ * 形状为sparse、dense、power-law和long-chain，同一描述每次生成的图都相同
+ *
+ * @author tuhailong
+ */
+final class GraphInput {
+    final String shape;
+    final Integer[] vexs;
+    final Integer[][] edges;
+    // 顶点信息就是序号，int图直接使用边的两个端点
+    final int[] sources;
+    final int[] targets;
+
+    private GraphInput(String shape, Integer[] vexs, Integer[][] edges) {
+        this.shape = shape;
+        this.vexs = vexs;
+        this.edges = edges;
+        this.sources = new int[edges.length];
+        this.targets = new int[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            sources[i] = edges[i][0];
+            targets[i] = edges[i][1];
+        }
+    }
+
+    static GraphInput of(String input) {
+        int slash = input.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("input " + input);
+        }
+        String shape = input.substring(0, slash);
+        int eLen = Integer.parseInt(input.substring(slash + 1));
+        Random random = new Random(20180101L + eLen);
+        switch (shape) {
+        case "sparse":
+            return sparse(eLen, random);
+        case "dense":
+            return dense(eLen, random);
+        case "power-law":
+            return powerLaw(eLen, random);
+        case "long-chain":
+            return chain(eLen);
+        default:
+            throw new IllegalArgumentException("shape " + shape);
+        }
+    }
+
+    int vertexSize() {
+        return vexs.length;
+    }
+
+    private static Integer[] vertexes(int vLen) {
+        Integer[] vexs = new Integer[vLen];
+        for (int i = 0; i < vLen; i++) {
+            vexs[i] = i;
+        }
+        return vexs;
+    }
+
+    /**
+     * 稀疏图：平均出度为8的均匀随机图
+     */
+    private static GraphInput sparse(int eLen, Random random) {
+        int vLen = Math.max(eLen / 8, 2);
+        Integer[] vexs = vertexes(vLen);
+        Integer[][] edges = new Integer[eLen][];
+        for (int i = 0; i < eLen; i++) {
+            edges[i] = new Integer[] { vexs[random.nextInt(vLen)], vexs[random.nextInt(vLen)] };
+        }
+        return new GraphInput("sparse", vexs, edges);
+    }
+
+    /**
+     * 稠密图：顶点数约为边数的平方根的两倍，任意两点之间有边的概率约为1/4
+     */
+    private static GraphInput dense(int eLen, Random random) {
+        int vLen = Math.max((int)Math.sqrt(eLen * 4.0), 2);
+        Integer[] vexs = vertexes(vLen);
+        Integer[][] edges = new Integer[eLen][];
+        for (int i = 0; i < eLen; i++) {
+            edges[i] = new Integer[] { vexs[random.nextInt(vLen)], vexs[random.nextInt(vLen)] };
+        }
+        return new GraphInput("dense", vexs, edges);
+    }
+
+    /**
+     * 幂律图：终止顶点按序号的幂律分布选取，少数顶点拥有大部分入边
+     */
+    private static GraphInput powerLaw(int eLen, Random random) {
+        int vLen = Math.max(eLen / 8, 2);
+        Integer[] vexs = vertexes(vLen);
+        Integer[][] edges = new Integer[eLen][];
+        for (int i = 0; i < eLen; i++) {
+            int to = (int)(Math.pow(random.nextDouble(), 3) * vLen);
+            edges[i] = new Integer[] { vexs[random.nextInt(vLen)], vexs[to] };
+        }
+        return new GraphInput("power-law", vexs, edges);
+    }
+
+    /**
+     * 长链：0 -> 1 -> ... -> n，DFS的深度等于顶点数量
+     */
+    private static GraphInput chain(int eLen) {
+        int vLen = eLen + 1;
+        Integer[] vexs = vertexes(vLen);
+        Integer[][] edges = new Integer[eLen][];
+        for (int i = 0; i < eLen; i++) {
+            edges[i] = new Integer[] { vexs[i], vexs[i + 1] };
+        }
+        return new GraphInput("long-chain", vexs, edges);
+    }
+}
@@ -0,0 +1,86 @@
+package com.tuhailong.graph;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 顶点为int序号的邻接表图，与DirectedGraphBenchmark、UndirectedGraphBenchmark中的同名项比较
+ *
+ * @author tuhailong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class IntGraphBenchmark {
+    @Param({ "sparse/1000", "sparse/10000", "sparse/100000", "sparse/1000000",
+            "dense/1000", "dense/10000", "dense/100000", "dense/1000000",
+            "power-law/1000", "power-law/10000", "power-law/100000", "power-law/1000000",
+            "long-chain/1000", "long-chain/10000", "long-chain/100000", "long-chain/1000000" })
+    public String input;
+
+    private GraphInput mInput;
+    private IntDirectedGraph mDirected;
+    private IntUndirectedGraph mUndirected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mInput = GraphInput.of(input);
+        mDirected = new IntDirectedGraph(mInput.vertexSize(), mInput.sources, mInput.targets);
+        mUndirected = new IntUndirectedGraph(mInput.vertexSize(), mInput.sources, mInput.targets);
+    }
+
+    @Benchmark
+    public Object directedConstruct() {
+        return new IntDirectedGraph(mInput.vertexSize(), mInput.sources, mInput.targets);
+    }
+
+    @Benchmark
+    public Object directedDfs() {
+        return mDirected.dfs();
+    }
+
+    @Benchmark
+    public Object directedBfs() {
+        return mDirected.bfs();
+    }
+
+    @Benchmark
+    public int directedBfsStreamSum() {
+        return mDirected.bfsStream().sum();
+    }
+
+    @Benchmark
+    public Object directedStronglyConnected() {
+        return mDirected.stronglyConnectedComponents();
+    }
+
+    @Benchmark
+    public Object undirectedDfs() {
+        return mUndirected.dfs();
+    }
+
+    @Benchmark
+    public Object undirectedBfs() {
+        return mUndirected.bfs();
+    }
+
+    @Benchmark
+    public Object undirectedConnectedComponents() {
+        return mUndirected.connectedComponents();
+    }
+}
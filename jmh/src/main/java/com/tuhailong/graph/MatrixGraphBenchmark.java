@@ -0,0 +1,94 @@
+package com.tuhailong.graph;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 邻接矩阵表示的构建和遍历
+ * 矩阵的空间为O(V^2)，只测顶点数不超过20000的输入
+ *
+ * @author tuhailong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class MatrixGraphBenchmark {
+    @Param({ "sparse/1000", "sparse/10000", "sparse/100000",
+            "dense/1000", "dense/10000", "dense/100000", "dense/1000000",
+            "power-law/1000", "power-law/10000", "power-law/100000",
+            "long-chain/1000", "long-chain/10000" })
+    public String input;
+
+    private GraphInput mInput;
+    private MatrixDirectedGraph<Integer> mDirected;
+    private MatrixUndirectedGraph<Integer> mUndirected;
+    private IntMatrixGraph mIntDirected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mInput = GraphInput.of(input);
+        mDirected = new MatrixDirectedGraph<>(mInput.vexs, mInput.edges);
+        mUndirected = new MatrixUndirectedGraph<>(mInput.vexs, mInput.edges);
+        mIntDirected = new IntMatrixGraph(mInput.vertexSize(), mInput.sources, mInput.targets, true);
+    }
+
+    @Benchmark
+    public Object directedConstruct() {
+        return new MatrixDirectedGraph<>(mInput.vexs, mInput.edges);
+    }
+
+    @Benchmark
+    public Object directedDfs() {
+        return mDirected.dfs();
+    }
+
+    @Benchmark
+    public Object directedBfs() {
+        return mDirected.bfs();
+    }
+
+    @Benchmark
+    public Object undirectedConstruct() {
+        return new MatrixUndirectedGraph<>(mInput.vexs, mInput.edges);
+    }
+
+    @Benchmark
+    public Object undirectedDfs() {
+        return mUndirected.dfs();
+    }
+
+    @Benchmark
+    public Object undirectedBfs() {
+        return mUndirected.bfs();
+    }
+
+    @Benchmark
+    public boolean undirectedIsConnected() {
+        return mUndirected.isConnected();
+    }
+
+    @Benchmark
+    public Object intDfs() {
+        return mIntDirected.dfs();
+    }
+
+    @Benchmark
+    public Object intBfs() {
+        return mIntDirected.bfs();
+    }
+}
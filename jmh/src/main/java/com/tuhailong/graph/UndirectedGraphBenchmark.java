@@ -0,0 +1,82 @@
+package com.tuhailong.graph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * UndirectedGraph(邻接表)的构建、遍历和连通分量
+ *
+ * @author tuhailong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class UndirectedGraphBenchmark {
+    @Param({ "sparse/1000", "sparse/10000", "sparse/100000", "sparse/1000000",
+            "dense/1000", "dense/10000", "dense/100000", "dense/1000000",
+            "power-law/1000", "power-law/10000", "power-law/100000", "power-law/1000000",
+            "long-chain/1000", "long-chain/10000", "long-chain/100000", "long-chain/1000000" })
+    public String input;
+
+    private GraphInput mInput;
+    private UndirectedGraph<Integer> mGraph;
+    private int mLast;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mInput = GraphInput.of(input);
+        mGraph = new UndirectedGraph<>(mInput.vexs, mInput.edges);
+        mLast = mInput.vertexSize() - 1;
+    }
+
+    @Benchmark
+    public Object construct() {
+        return new UndirectedGraph<>(mInput.vexs, mInput.edges);
+    }
+
+    @Benchmark
+    public Object dfs() {
+        return mGraph.dfs();
+    }
+
+    @Benchmark
+    public Object bfs() {
+        return mGraph.bfs();
+    }
+
+    @Benchmark
+    public Object shortestPath() {
+        return mGraph.shortestPath(0, mLast);
+    }
+
+    @Benchmark
+    public boolean hasCycle() {
+        return mGraph.hasCycle();
+    }
+
+    @Benchmark
+    public Object connectedComponent() {
+        return new UndirectedGraph.ConnectedComponent<>(mGraph);
+    }
+
+    @Benchmark
+    public Object connectedComponentParallel() {
+        return new UndirectedGraph.ConnectedComponent<>(mGraph, ForkJoinPool.commonPool());
+    }
+}
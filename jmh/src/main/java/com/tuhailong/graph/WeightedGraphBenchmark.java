@@ -0,0 +1,59 @@
+package com.tuhailong.graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * WeightedDirectedGraph的单源最短路径，边权为[1, 100]中的随机整数
+ *
+ * @author tuhailong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class WeightedGraphBenchmark {
+    @Param({ "sparse/1000", "sparse/10000", "sparse/100000", "sparse/1000000",
+            "dense/1000", "dense/10000", "dense/100000", "dense/1000000",
+            "power-law/1000", "power-law/10000", "power-law/100000", "power-law/1000000",
+            "long-chain/1000", "long-chain/10000", "long-chain/100000", "long-chain/1000000" })
+    public String input;
+
+    private WeightedDirectedGraph<Integer> mGraph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GraphInput in = GraphInput.of(input);
+        double[] weights = new double[in.edges.length];
+        Random random = new Random(in.edges.length);
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1 + random.nextInt(100);
+        }
+        mGraph = new WeightedDirectedGraph<>(in.vexs, in.edges, weights);
+    }
+
+    @Benchmark
+    public Object dijkstra() {
+        return mGraph.dijkstra(0);
+    }
+
+    @Benchmark
+    public Object bellmanFord() {
+        return mGraph.bellmanFord(0);
+    }
+}